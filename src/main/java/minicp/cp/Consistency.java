@@ -0,0 +1,35 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.cp;
+
+/**
+ * Filtering strength of the global constraints having several propagators,
+ * see {@link Factory#allDifferent(minicp.engine.core.IntVar[], Consistency)}
+ */
+public enum Consistency {
+    /**
+     * The values of the bound variables are removed from the other ones
+     */
+    FORWARD_CHECKING,
+    /**
+     * The bounds of the domains are consistent
+     */
+    BOUNDS,
+    /**
+     * Every value of the domains is consistent
+     */
+    DOMAIN
+}
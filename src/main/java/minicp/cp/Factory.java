@@ -17,6 +17,7 @@ package minicp.cp;
 
 import minicp.engine.constraints.*;
 import minicp.engine.core.*;
+import minicp.reversible.Trail;
 import minicp.search.Choice;
 import minicp.search.DFSearch;
 import minicp.util.InconsistencyException;
@@ -30,25 +31,34 @@ public class Factory {
         return new Solver();
     }
 
+    /**
+     * Create a solver whose state is managed by trail,
+     * e.g. a {@link minicp.reversible.Copier} to restore by copy
+     * @param trail
+     */
+    static public Solver makeSolver(Trail trail) {
+        return new Solver(trail);
+    }
+
+    // views are composed into a single affine view a*x+b, see IntVarViewAffine
+
     static public IntVar mul(IntVar x, int a) {
         if (a == 0) return makeIntVar(x.getSolver(),0,0);
-        else if (a < 0) {
-            return minus(new IntVarViewMul(x,-a));
-        } else {
-            return new IntVarViewMul(x,a);
-        }
+        else if (a == 1) return x;
+        else return new IntVarViewAffine(x,a,0);
     }
 
     static public IntVar minus(IntVar x) {
-        return new IntVarViewOpposite(x);
+        return new IntVarViewAffine(x,-1,0);
     }
 
     static public IntVar plus(IntVar x, int v) {
-        return new IntVarViewOffset(x,v);
+        if (v == 0) return x;
+        else return new IntVarViewAffine(x,1,v);
     }
 
     static public IntVar minus(IntVar x, int v) {
-        return new IntVarViewOffset(x,-v);
+        return plus(x,-v);
     }
 
     /**
@@ -72,6 +82,12 @@ public class Factory {
         return new IntVarImpl(cp,min,max);
     }
 
+    /**
+     * Create a variable with the given values as initial domain,
+     * only these values are stored whatever their range
+     * @param cp
+     * @param values at least one value
+     */
     static public IntVar makeIntVar(Solver cp, Set<Integer> values) {
         return new IntVarImpl(cp,values);
     }
@@ -183,6 +199,17 @@ public class Factory {
     }
 
     static public Constraint allDifferent(IntVar[] x) throws InconsistencyException  {
-        return new AllDifferentBinary(x);
+        return new AllDifferentFC(x);
+    }
+
+    static public Constraint allDifferent(IntVar[] x, Consistency level) throws InconsistencyException  {
+        switch (level) {
+            case BOUNDS:
+                return new AllDifferentBC(x);
+            case DOMAIN:
+                return new AllDifferentDC(x);
+            default:
+                return new AllDifferentFC(x);
+        }
     }
 }
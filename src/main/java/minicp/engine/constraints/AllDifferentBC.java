@@ -0,0 +1,221 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.constraints;
+
+import minicp.engine.core.Constraint;
+import minicp.engine.core.IntVar;
+import minicp.util.InconsistencyException;
+
+import java.util.Arrays;
+
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Bounds consistent AllDifferent:
+ * the bounds of the variables are pruned according to the Hall intervals.
+ * Lopez-Ortiz, Quimper, Tromp, van Beek,
+ * A fast and simple algorithm for bounds consistency of the alldifferent constraint, IJCAI 2003.
+ * The forward checking AllDifferentFC is posted as well
+ * to remove the values of the bound variables from the inside of the domains.
+ */
+public class AllDifferentBC extends Constraint {
+
+    private final IntVar [] x;
+    private final int n;
+
+    // bounds of the variables at the start of the propagation
+    private final int [] lb;
+    private final int [] ub;
+    // indexes of the variables sorted by increasing lb, resp. ub
+    private final int [] minsorted;
+    private final int [] maxsorted;
+    // a key packed with the index of its variable, to sort the indexes
+    private final long [] keys;
+    // rank of lb, resp. ub+1, in bounds
+    private final int [] minrank;
+    private final int [] maxrank;
+
+    // sorted distinct values of the lb's and ub+1's with two sentinels,
+    // as longs since ub+1 and the sentinels may not fit in an int
+    private final long [] bounds;
+    private int nbBounds;
+    // tree links, Hall interval links and capacities of the interval between consecutive bounds
+    private final int [] t;
+    private final int [] h;
+    private final long [] d;
+
+    public AllDifferentBC(IntVar ... x) {
+        super(x[0].getSolver());
+        this.x = x;
+        this.n = x.length;
+        lb = new int[n];
+        ub = new int[n];
+        minsorted = new int[n];
+        maxsorted = new int[n];
+        minrank = new int[n];
+        maxrank = new int[n];
+        keys = new long[n];
+        bounds = new long[2 * n + 2];
+        t = new int[2 * n + 2];
+        h = new int[2 * n + 2];
+        d = new long[2 * n + 2];
+    }
+
+    @Override
+    public void post() throws InconsistencyException {
+        cp.post(new AllDifferentFC(x));
+        for (IntVar var: x) {
+            var.propagateOnBoundChange(this);
+        }
+        propagate();
+    }
+
+    @Override
+    public void propagate() throws InconsistencyException {
+        for (int i = 0; i < n; i++) {
+            lb[i] = x[i].getMin();
+            ub[i] = x[i].getMax();
+        }
+        sortIt();
+        filterLower();
+        filterUpper();
+    }
+
+    private void sortIt() {
+        sort(minsorted, lb);
+        sort(maxsorted, ub);
+
+        long min = lb[minsorted[0]];
+        long max = ub[maxsorted[0]] + 1L;
+        long last = min - 2;
+        int nb = 0;
+        bounds[0] = last;
+        int i = 0, j = 0;
+        while (true) {
+            if (i < n && min <= max) {
+                if (min != last) bounds[++nb] = last = min;
+                minrank[minsorted[i]] = nb;
+                if (++i < n) min = lb[minsorted[i]];
+            } else {
+                if (max != last) bounds[++nb] = last = max;
+                maxrank[maxsorted[j]] = nb;
+                if (++j == n) break;
+                max = ub[maxsorted[j]] + 1L;
+            }
+        }
+        nbBounds = nb;
+        bounds[nb + 1] = bounds[nb] + 2;
+    }
+
+    /**
+     * Sets indexes to the indexes of the variables sorted by increasing key
+     * in O(n log n): the keys are packed with the indexes in longs
+     */
+    private void sort(int [] indexes, int [] key) {
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) key[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < n; i++) {
+            indexes[i] = (int) keys[i];
+        }
+    }
+
+    private void filterLower() throws InconsistencyException {
+        for (int i = 1; i <= nbBounds + 1; i++) {
+            t[i] = h[i] = i - 1;
+            d[i] = bounds[i] - bounds[i - 1];
+        }
+        for (int i = 0; i < n; i++) {
+            int idx = maxsorted[i];
+            int x0 = minrank[idx];
+            int y = maxrank[idx];
+            int z = pathMax(t, x0 + 1);
+            int j = t[z];
+            if (--d[z] == 0) {
+                t[z] = z + 1;
+                z = pathMax(t, t[z]);
+                t[z] = j;
+            }
+            pathSet(t, x0 + 1, z, z);
+            // more variables than values in [bounds[y],bounds[z])
+            if (d[z] < bounds[z] - bounds[y]) throw INCONSISTENCY;
+            if (h[x0] > x0) {
+                int w = pathMax(h, h[x0]);
+                if (bounds[w] > Integer.MAX_VALUE) throw INCONSISTENCY;
+                x[idx].removeBelow((int) bounds[w]);
+                pathSet(h, x0, w, w);
+            }
+            if (d[z] == bounds[z] - bounds[y]) {
+                // Hall interval [bounds[j],bounds[y])
+                pathSet(h, h[y], j - 1, y);
+                h[y] = j - 1;
+            }
+        }
+    }
+
+    private void filterUpper() throws InconsistencyException {
+        for (int i = 0; i <= nbBounds; i++) {
+            t[i] = h[i] = i + 1;
+            d[i] = bounds[i + 1] - bounds[i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int idx = minsorted[i];
+            int x0 = maxrank[idx];
+            int y = minrank[idx];
+            int z = pathMin(t, x0 - 1);
+            int j = t[z];
+            if (--d[z] == 0) {
+                t[z] = z - 1;
+                z = pathMin(t, t[z]);
+                t[z] = j;
+            }
+            pathSet(t, x0 - 1, z, z);
+            // more variables than values in [bounds[z],bounds[y])
+            if (d[z] < bounds[y] - bounds[z]) throw INCONSISTENCY;
+            if (h[x0] < x0) {
+                int w = pathMin(h, h[x0]);
+                if (bounds[w] - 1 < Integer.MIN_VALUE) throw INCONSISTENCY;
+                x[idx].removeAbove((int) (bounds[w] - 1));
+                pathSet(h, x0, w, w);
+            }
+            if (d[z] == bounds[y] - bounds[z]) {
+                // Hall interval [bounds[y],bounds[j])
+                pathSet(h, h[y], j + 1, y);
+                h[y] = j + 1;
+            }
+        }
+    }
+
+    private static void pathSet(int [] tree, int start, int end, int to) {
+        int k = start;
+        while (k != end) {
+            int next = tree[k];
+            tree[k] = to;
+            k = next;
+        }
+    }
+
+    private static int pathMin(int [] tree, int i) {
+        while (tree[i] < i) i = tree[i];
+        return i;
+    }
+
+    private static int pathMax(int [] tree, int i) {
+        while (tree[i] > i) i = tree[i];
+        return i;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.constraints;
+
+import minicp.engine.core.Constraint;
+import minicp.engine.core.IntVar;
+import minicp.util.InconsistencyException;
+
+import java.util.Arrays;
+
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Domain consistent AllDifferent:
+ * the values that do not belong to any maximum matching
+ * of the variable-value graph are removed.
+ * Regin, A filtering algorithm for constraints of difference in CSPs, AAAI 1994.
+ */
+public class AllDifferentDC extends Constraint {
+
+    private static final int NONE = -1;
+
+    private final IntVar [] x;
+    private final int n;
+    // values are represented by their index in vals,
+    // the sorted distinct values of the initial domains
+    private final int [] vals;
+    private final int nVals;
+
+    // maximum matching: match[i] is the value of x[i], valMatch[v] the variable of the value v or NONE.
+    // It is not trailed: the domains only grow on backtrack, so the matching stays valid
+    // and only the edges removed since the last propagation have to be repaired.
+    private final int [] match;
+    private final int [] valMatch;
+    // variables visited by the current search of an augmenting path
+    private final int [] seen;
+    private int magic = 0;
+    // current path of the search: path[d] is reached from path[d-1] through its value via[d-1],
+    // pos[d] is the next position to try in the domain of path[d]
+    private final int [] path;
+    private final int [] via;
+    private final int [] pos;
+
+    // domains of the variables as value indexes, filled at each propagation
+    private final int [][] domain;
+    private final int [] domainSize;
+    private final int [] removed;
+
+    // residual graph: nodes 0..n-1 are the variables, n..n+nVals-1 the values
+    // and sink = n+nVals is linked from the free values and to the matched ones.
+    // Edges: variable -> unmatched value of its domain, value -> its variable, free value -> sink
+    private final int sink;
+    // num[u] and low[u] are valid iff visited[u] == sccMagic:
+    // only the nodes reachable from the variables and the sink are visited
+    private final int [] visited;
+    private int sccMagic = 0;
+    private final int [] num;
+    private final int [] low;
+    private final int [] scc;
+    private final int [] stack;
+    private final boolean [] onStack;
+    // explicit call stack of Tarjan's search, edge[u] is the next edge to follow from u
+    private final int [] callStack;
+    private final int [] edge;
+    private int index;
+    private int top;
+    private int nScc;
+
+    public AllDifferentDC(IntVar ... x) {
+        super(x[0].getSolver());
+        this.x = x;
+        this.n = x.length;
+        int total = 0;
+        int maxSize = 0;
+        for (IntVar var: x) {
+            total += var.getSize();
+            maxSize = Math.max(maxSize, var.getSize());
+        }
+        domain = new int[n][];
+        int [] all = new int[total];
+        total = 0;
+        for (int i = 0; i < n; i++) {
+            domain[i] = new int[x[i].getSize()];
+            int size = x[i].fillArray(domain[i]);
+            System.arraycopy(domain[i], 0, all, total, size);
+            total += size;
+        }
+        Arrays.sort(all);
+        int nv = 0;
+        for (int k = 0; k < total; k++) {
+            if (nv == 0 || all[k] != all[nv - 1]) all[nv++] = all[k];
+        }
+        vals = Arrays.copyOf(all, nv);
+        nVals = nv;
+        match = new int[n];
+        valMatch = new int[nVals];
+        Arrays.fill(match, NONE);
+        Arrays.fill(valMatch, NONE);
+        seen = new int[n];
+        path = new int[n];
+        via = new int[n];
+        pos = new int[n];
+        domainSize = new int[n];
+        removed = new int[maxSize];
+        sink = n + nVals;
+        visited = new int[sink + 1];
+        num = new int[sink + 1];
+        low = new int[sink + 1];
+        scc = new int[sink + 1];
+        stack = new int[sink + 1];
+        onStack = new boolean[sink + 1];
+        callStack = new int[sink + 1];
+        edge = new int[sink + 1];
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_SLOW;
+    }
+
+    @Override
+    public void post() throws InconsistencyException {
+        for (IntVar var: x) {
+            var.propagateOnDomainChange(this);
+        }
+        propagate();
+    }
+
+    @Override
+    public void propagate() throws InconsistencyException {
+        for (int i = 0; i < n; i++) {
+            int [] dom = domain[i];
+            int size = x[i].fillArray(dom);
+            for (int k = 0; k < size; k++) {
+                // the domains only shrink: every value is in vals
+                dom[k] = Arrays.binarySearch(vals, dom[k]);
+            }
+            domainSize[i] = size;
+        }
+        updateMatching();
+        updateSCC();
+        for (int i = 0; i < n; i++) {
+            int nRemoved = 0;
+            int [] dom = domain[i];
+            for (int k = 0; k < domainSize[i]; k++) {
+                int v = dom[k];
+                if (v != match[i] && scc[i] != scc[n + v]) {
+                    removed[nRemoved++] = vals[v];
+                }
+            }
+            if (nRemoved > 0) x[i].removeAll(removed, nRemoved);
+        }
+    }
+
+    private void updateMatching() throws InconsistencyException {
+        // unmatch the variables whose value was removed
+        for (int i = 0; i < n; i++) {
+            if (match[i] != NONE && !x[i].contains(vals[match[i]])) {
+                valMatch[match[i]] = NONE;
+                match[i] = NONE;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (match[i] == NONE && !findAugmentingPath(i)) throw INCONSISTENCY;
+        }
+    }
+
+    /**
+     * Depth first search of an alternating path from x[root] to a free value:
+     * each variable of the path takes the value of the next one
+     * and the last one takes the free value
+     * @return true if x[root] could be matched
+     */
+    private boolean findAugmentingPath(int root) {
+        magic++;
+        seen[root] = magic;
+        path[0] = root;
+        pos[0] = 0;
+        int depth = 0;
+        int free = freeValue(root);
+        while (free == NONE) {
+            int i = path[depth];
+            if (pos[depth] == domainSize[i]) {
+                if (depth == 0) return false;
+                depth--;
+                continue;
+            }
+            int v = domain[i][pos[depth]++];
+            int j = valMatch[v];
+            if (seen[j] != magic) {
+                seen[j] = magic;
+                via[depth] = v;
+                depth++;
+                path[depth] = j;
+                pos[depth] = 0;
+                free = freeValue(j);
+            }
+        }
+        match[path[depth]] = free;
+        valMatch[free] = path[depth];
+        for (int d = depth - 1; d >= 0; d--) {
+            match[path[d]] = via[d];
+            valMatch[via[d]] = path[d];
+        }
+        return true;
+    }
+
+    /**
+     * @return a value of x[i] that is not matched, NONE if there is none
+     */
+    private int freeValue(int i) {
+        int [] dom = domain[i];
+        for (int k = 0; k < domainSize[i]; k++) {
+            if (valMatch[dom[k]] == NONE) return dom[k];
+        }
+        return NONE;
+    }
+
+    /**
+     * Tarjan's strongly connected components of the residual graph.
+     * An unmatched edge (x[i],v) belongs to a maximum matching
+     * iff i and v are in the same component.
+     * Every value of a domain is reached from its variable or from the sink,
+     * the values removed from all the domains are not visited.
+     */
+    private void updateSCC() {
+        sccMagic++;
+        index = 0;
+        top = 0;
+        nScc = 0;
+        for (int u = 0; u < n; u++) {
+            if (visited[u] != sccMagic) strongConnect(u);
+        }
+        if (visited[sink] != sccMagic) strongConnect(sink);
+    }
+
+    private void strongConnect(int root) {
+        int depth = 0;
+        open(root);
+        callStack[depth++] = root;
+        while (depth > 0) {
+            int u = callStack[depth - 1];
+            int w = nextSuccessor(u);
+            if (w != NONE) {
+                if (visited[w] != sccMagic) {
+                    open(w);
+                    callStack[depth++] = w;
+                } else if (onStack[w]) {
+                    low[u] = Math.min(low[u], num[w]);
+                }
+            } else {
+                depth--;
+                if (low[u] == num[u]) {
+                    int v;
+                    do {
+                        v = stack[--top];
+                        onStack[v] = false;
+                        scc[v] = nScc;
+                    } while (v != u);
+                    nScc++;
+                }
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+            }
+        }
+    }
+
+    private void open(int u) {
+        visited[u] = sccMagic;
+        num[u] = low[u] = ++index;
+        edge[u] = 0;
+        stack[top++] = u;
+        onStack[u] = true;
+    }
+
+    /**
+     * @return the next node linked from u, NONE once all its edges were followed
+     */
+    private int nextSuccessor(int u) {
+        if (u < n) {
+            int [] dom = domain[u];
+            while (edge[u] < domainSize[u]) {
+                int v = dom[edge[u]++];
+                if (v != match[u]) return n + v;
+            }
+            return NONE;
+        } else if (u < sink) {
+            if (edge[u]++ > 0) return NONE;
+            int i = valMatch[u - n];
+            return i == NONE ? sink : i;
+        } else {
+            if (edge[u] == n) return NONE;
+            return n + match[edge[u]++];
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.constraints;
+
+import minicp.engine.core.Constraint;
+import minicp.engine.core.IntVar;
+import minicp.reversible.Copyable;
+import minicp.reversible.ReversibleInt;
+import minicp.util.InconsistencyException;
+
+/**
+ * Forward checking AllDifferent:
+ * the value of each newly bound variable is removed from the unbound ones.
+ * Same filtering as AllDifferentBinary with a single propagator
+ * instead of n(n-1)/2 NotEqual constraints.
+ */
+public class AllDifferentFC extends Constraint implements Copyable {
+
+    private IntVar [] x;
+    // unBounds[0..nUnBounds) are the indexes of the variables that were unbound at the last propagation
+    private int [] unBounds;
+    private ReversibleInt nUnBounds;
+
+    public AllDifferentFC(IntVar ... x) {
+        super(x[0].getSolver());
+        this.x = x;
+        int n = x.length;
+        nUnBounds = new ReversibleInt(cp.getTrail(),n);
+        unBounds = new int[n];
+        for (int i = 0; i < n; i++) {
+            unBounds[i] = i;
+        }
+        cp.getTrail().register(this);
+    }
+
+    @Override
+    public void post() throws InconsistencyException {
+        for (IntVar var: x) {
+            var.propagateOnBind(this);
+        }
+        propagate();
+    }
+
+    @Override
+    public void propagate() throws InconsistencyException {
+        int nU = nUnBounds.getValue();
+        boolean fixPoint = false;
+        while (!fixPoint) {
+            fixPoint = true;
+            for (int i = nU - 1; i >= 0; i--) {
+                int idx = unBounds[i];
+                if (x[idx].isBound()) {
+                    // Swap the variable out of the unbound ones
+                    unBounds[i] = unBounds[nU - 1];
+                    unBounds[nU - 1] = idx;
+                    nU--;
+                    // A variable bound to the same value fails here
+                    int v = x[idx].getMin();
+                    for (int j = 0; j < nU; j++) {
+                        IntVar y = x[unBounds[j]];
+                        y.remove(v);
+                        // The variables from position i on were already visited in this pass
+                        if (j >= i && y.isBound()) fixPoint = false;
+                    }
+                }
+            }
+        }
+        nUnBounds.setValue(nU);
+        if (nU <= 1) deactivate();
+    }
+
+    // the order of unBounds is copied by a Copier, only nUnBounds is reversible
+
+    @Override
+    public int stateSize() {
+        return unBounds.length;
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        for (int i = 0; i < unBounds.length; i++) {
+            buffer[offset + i] = unBounds[i];
+        }
+        return unBounds.length;
+    }
+
+    @Override
+    public int restore(long[] buffer, int offset) {
+        for (int i = 0; i < unBounds.length; i++) {
+            unBounds[i] = (int) buffer[offset + i];
+        }
+        return unBounds.length;
+    }
+}
@@ -18,21 +18,22 @@ package minicp.engine.constraints;
 
 import static minicp.cp.Factory.*;
 
-import com.sun.org.apache.regexp.internal.RE;
 import minicp.engine.core.Constraint;
 import minicp.engine.core.ConstraintClosure;
 import minicp.engine.core.IntVar;
 import minicp.engine.core.IntVarImpl;
-import minicp.reversible.ReversibleInt;
+import minicp.reversible.ReversibleIntStore;
 import minicp.util.InconsistencyException;
 import minicp.util.NotImplementedException;
 
 public class Circuit extends Constraint {
 
     private final IntVar [] x;
-    private final ReversibleInt [] dest;
-    private final ReversibleInt [] orig;
-    private final ReversibleInt [] lengthToDest;
+    private final ReversibleIntStore store;
+    // handles of the first dest, orig and lengthToDest entries in the store
+    private final int dest;
+    private final int orig;
+    private final int lengthToDest;
     private final int nbNodes;
 
     /**
@@ -44,13 +45,13 @@ public class Circuit extends Constraint {
         super(x[0].getSolver());
         this.x = x;
         this.nbNodes = x.length;
-        dest = new ReversibleInt[x.length];
-        orig = new ReversibleInt[x.length];
-        lengthToDest = new ReversibleInt[x.length];
+        store = new ReversibleIntStore(cp.getTrail(),3 * x.length);
+        dest = store.makeInts(x.length,0);
+        orig = store.makeInts(x.length,0);
+        lengthToDest = store.makeInts(x.length,0);
         for (int i = 0; i < x.length; i++) {
-            dest[i] = new ReversibleInt(cp.getTrail(),i);
-            orig[i] = new ReversibleInt(cp.getTrail(),i);
-            lengthToDest[i] = new ReversibleInt(cp.getTrail(),0);
+            store.setValue(dest + i, i);
+            store.setValue(orig + i, i);
         }
     }
 
@@ -76,17 +77,17 @@ public class Circuit extends Constraint {
     }
 
     private void bind(int i) throws InconsistencyException {
-        int length = lengthToDest[x[i].getMin()].getValue() + 1;
+        int length = store.getValue(lengthToDest + x[i].getMin()) + 1;
         for (int k = 0; k < nbNodes; k++){
-            if (orig[k].getValue() == x[i].getMin()){
-                orig[k].setValue(orig[i].getValue());
+            if (store.getValue(orig + k) == x[i].getMin()){
+                store.setValue(orig + k, store.getValue(orig + i));
             }
-            if (dest[k].getValue() == i){
-                dest[k].setValue(dest[x[i].getMin()].getValue());
-                lengthToDest[k].setValue(lengthToDest[k].getValue() + length);
+            if (store.getValue(dest + k) == i){
+                store.setValue(dest + k, store.getValue(dest + x[i].getMin()));
+                store.setValue(lengthToDest + k, store.getValue(lengthToDest + k) + length);
             }
-            if ((lengthToDest[k].getValue() == 0) && (lengthToDest[orig[k].getValue()].getValue() < nbNodes - 1)){
-                x[k].remove(orig[k].getValue());
+            if ((store.getValue(lengthToDest + k) == 0) && (store.getValue(lengthToDest + store.getValue(orig + k)) < nbNodes - 1)){
+                x[k].remove(store.getValue(orig + k));
             }
         }
     }
@@ -51,6 +51,11 @@ public class Cumulative extends Constraint {
     }
 
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_SLOW;
+    }
+
     @Override
     public void post() throws InconsistencyException {
         for (int i = 0; i < start.length; i++) {
@@ -44,6 +44,11 @@ public class CumulativeDecomposition extends Constraint {
         this.capa = capa;
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_SLOW;
+    }
+
     @Override
     public void post() throws InconsistencyException {
 
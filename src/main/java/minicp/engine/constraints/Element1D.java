@@ -20,6 +20,7 @@ import minicp.cp.Factory;
 import minicp.engine.core.Constraint;
 import minicp.engine.core.IntVar;
 import minicp.reversible.ReversibleInt;
+import minicp.reversible.ReversibleIntStore;
 import minicp.util.InconsistencyException;
 import minicp.util.NotImplementedException;
 
@@ -27,12 +28,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
 public class Element1D extends Constraint {
 
     private final int[] T;
     private final IntVar x, y;
     private int n;
-    private final ReversibleInt[] nRowsSup;
+    private final ReversibleIntStore nRowsSup;
+    private final int[] lostX; // values of x without support, removed at the end of propagate
+    private int nLostX;
 
     private final ReversibleInt low;
     private final ReversibleInt up;
@@ -66,11 +71,15 @@ public class Element1D extends Constraint {
         low = new ReversibleInt(cp.getTrail(),0);
         up = new ReversibleInt(cp.getTrail(),xy.size()-1);
 
-        nRowsSup = new ReversibleInt[n];
-        for (int j = 0; j < n; j++) {
-            nRowsSup[j] = new ReversibleInt(cp.getTrail(),1);
-        }
+        nRowsSup = new ReversibleIntStore(cp.getTrail(),n);
+        nRowsSup.makeInts(n,1);
+        lostX = new int[n];
+
+    }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_SLOW;
     }
 
     @Override
@@ -89,18 +98,18 @@ public class Element1D extends Constraint {
         int u = up.getValue();
         int yMin = y.getMin();
         int yMax = y.getMax();
+        nLostX = 0;
         while (xy.get(l).y < yMin || !x.contains(xy.get(l).x)) {
             updateSupports(l);
             l++;
-            if (l > u) throw new InconsistencyException();
+            if (l > u) throw INCONSISTENCY;
         }
         while (xy.get(u).y > yMax || !x.contains(xy.get(u).x)) {
             updateSupports(u);
-            x.propagateOnDomainChange(this);
-
             u--;
-            if (l > u) throw new InconsistencyException();
+            if (l > u) throw INCONSISTENCY;
         }
+        x.removeAll(lostX, nLostX);
         y.removeBelow(xy.get(l).y);
         y.removeAbove(xy.get(u).y);
         low.setValue(l);
@@ -108,8 +117,8 @@ public class Element1D extends Constraint {
     }
 
     private void updateSupports(int lostPos) throws InconsistencyException {
-        if (nRowsSup[xy.get(lostPos).x].decrement() == 0) {
-            x.remove(xy.get(lostPos).x);
+        if (nRowsSup.decrement(xy.get(lostPos).x) == 0) {
+            lostX[nLostX++] = xy.get(lostPos).x;
         }
     }
 }
@@ -19,19 +19,28 @@ package minicp.engine.constraints;
 import minicp.engine.core.Constraint;
 import minicp.engine.core.IntVar;
 import minicp.reversible.ReversibleInt;
+import minicp.reversible.ReversibleIntStore;
 import minicp.util.InconsistencyException;
 
 import java.util.ArrayList;
 import java.util.Collections;
 
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
 public class Element2D extends Constraint {
 
 
     private final int[][] T;
     private final IntVar x, y, z;
     private int n, m;
-    private final ReversibleInt[] nRowsSup;
-    private final ReversibleInt[] nColsSup;
+    private final ReversibleIntStore nSup;
+    // handles of the first nRowsSup and nColsSup counters in nSup
+    private final int nRowsSup;
+    private final int nColsSup;
+    // values of x and y without support, removed at the end of propagate
+    private final int[] lostX;
+    private final int[] lostY;
+    private int nLostX, nLostY;
 
     private final ReversibleInt low;
     private final ReversibleInt up;
@@ -80,14 +89,16 @@ public class Element2D extends Constraint {
         low = new ReversibleInt(cp.getTrail(),0);
         up = new ReversibleInt(cp.getTrail(),xyz.size()-1);
 
-        nColsSup = new ReversibleInt[n];
-        nRowsSup = new ReversibleInt[m];
-        for (int i = 0; i < n; i++) {
-            nColsSup[i] = new ReversibleInt(cp.getTrail(),m);
-        }
-        for (int j = 0; j < m; j++) {
-            nRowsSup[j] = new ReversibleInt(cp.getTrail(),n);
-        }
+        nSup = new ReversibleIntStore(cp.getTrail(),n + m);
+        nColsSup = nSup.makeInts(n,m);
+        nRowsSup = nSup.makeInts(m,n);
+        lostX = new int[n];
+        lostY = new int[m];
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_SLOW;
     }
 
     @Override
@@ -104,11 +115,11 @@ public class Element2D extends Constraint {
     }
 
     private void updateSupports(int lostPos) throws InconsistencyException {
-        if (nColsSup[xyz.get(lostPos).x].decrement() == 0) {
-            x.remove(xyz.get(lostPos).x);
+        if (nSup.decrement(nColsSup + xyz.get(lostPos).x) == 0) {
+            lostX[nLostX++] = xyz.get(lostPos).x;
         }
-        if (nRowsSup[xyz.get(lostPos).y].decrement() == 0) {
-            y.remove(xyz.get(lostPos).y);
+        if (nSup.decrement(nRowsSup + xyz.get(lostPos).y) == 0) {
+            lostY[nLostY++] = xyz.get(lostPos).y;
         }
     }
 
@@ -118,17 +129,21 @@ public class Element2D extends Constraint {
         int u = up.getValue();
         int zMin = z.getMin();
         int zMax = z.getMax();
+        nLostX = 0;
+        nLostY = 0;
 
         while (xyz.get(l).z < zMin || !x.contains(xyz.get(l).x) || !y.contains(xyz.get(l).y)) {
             updateSupports(l);
             l++;
-            if (l > u) throw new InconsistencyException();
+            if (l > u) throw INCONSISTENCY;
         }
         while (xyz.get(u).z > zMax || !x.contains(xyz.get(u).x) || !y.contains(xyz.get(u).y)) {
             updateSupports(u);
             u--;
-            if (l > u) throw new InconsistencyException();
+            if (l > u) throw INCONSISTENCY;
         }
+        x.removeAll(lostX, nLostX);
+        y.removeAll(lostY, nLostY);
         z.removeBelow(xyz.get(l).z);
         z.removeAbove(xyz.get(u).z);
         low.setValue(l);
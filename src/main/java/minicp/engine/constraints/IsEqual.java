@@ -33,6 +33,11 @@ public class IsEqual extends Constraint { // b <=> x == c
         this.c = c;
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_FAST;
+    }
+
     @Override
     public void post() throws InconsistencyException {
         if (b.isTrue()) {
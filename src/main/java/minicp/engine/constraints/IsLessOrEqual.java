@@ -34,6 +34,11 @@ public class IsLessOrEqual extends Constraint { // b <=> x <= c
         this.c = c;
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_FAST;
+    }
+
     @Override
     public void post() throws InconsistencyException {
         if (b.isTrue()) {
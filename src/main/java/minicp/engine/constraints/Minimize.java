@@ -38,6 +38,11 @@ public class Minimize extends Constraint {
     }
 
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_FAST;
+    }
+
     @Override
     public void post() throws InconsistencyException {
         x.propagateOnBoundChange(this);
@@ -37,6 +37,11 @@ public class NotEqual extends Constraint {
         this.c = c;
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_FAST;
+    }
+
     @Override
     public void post() throws InconsistencyException {
         if (y.isBound())
@@ -19,12 +19,15 @@ import minicp.cp.Factory;
 import minicp.engine.core.Constraint;
 import minicp.engine.core.IntVar;
 import minicp.engine.core.IntVarImpl;
+import minicp.reversible.Copyable;
 import minicp.reversible.ReversibleInt;
 import minicp.util.InconsistencyException;
 
 import java.util.Arrays;
 
-public class Sum extends Constraint {
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
+public class Sum extends Constraint implements Copyable {
 
     private  int[] unBounds;
     private ReversibleInt nUnBounds;
@@ -58,6 +61,7 @@ public class Sum extends Constraint {
         for (int i = 0; i < n; i++) {
             unBounds[i] = i;
         }
+        cp.getTrail().register(this);
     }
 
     @Override
@@ -97,7 +101,7 @@ public class Sum extends Constraint {
             sumMin += x[idx].getMin();
         }
         if (sumMin > 0 || sumMax < 0)
-            throw new InconsistencyException();
+            throw INCONSISTENCY;
         for (int i = nU - 1; i >= 0; i--) {
             int idx = unBounds[i];
             x[idx].removeAbove(-(sumMin-x[idx].getMin()));
@@ -106,4 +110,26 @@ public class Sum extends Constraint {
 
     }
 
+    // the order of unBounds is copied by a Copier, only nUnBounds is reversible
+
+    @Override
+    public int stateSize() {
+        return n;
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        for (int i = 0; i < n; i++) {
+            buffer[offset + i] = unBounds[i];
+        }
+        return n;
+    }
+
+    @Override
+    public int restore(long[] buffer, int offset) {
+        for (int i = 0; i < n; i++) {
+            unBounds[i] = (int) buffer[offset + i];
+        }
+        return n;
+    }
 }
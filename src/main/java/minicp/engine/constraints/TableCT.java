@@ -16,19 +16,33 @@
 package minicp.engine.constraints;
 
 import minicp.engine.core.Constraint;
+import minicp.engine.core.DeltaInt;
 import minicp.engine.core.IntVar;
+import minicp.reversible.ReversibleSparseBitSet;
 import minicp.util.InconsistencyException;
-import minicp.util.NotImplementedException;
 
 import static minicp.cp.Factory.*;
-
-import java.util.BitSet;
-
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Compact-Table (Demeulenaere et al, CP 2016).
+ * The valid tuples are kept in a reversible sparse bit-set.
+ * It is updated from the values removed since the last propagation,
+ * or from the remaining values when they are fewer.
+ * The support of a value is first searched in its residue,
+ * the last word where one was found.
+ */
 public class TableCT extends Constraint {
     private IntVar[] x; //variables
     private int[][] table; //the table
     //supports[i][v] is the set of tuples supported by x[i]=v
-    private BitSet[][] supports;
+    private ReversibleSparseBitSet.StaticBitSet[][] supports;
+    //the tuples that are valid for the current domains
+    private ReversibleSparseBitSet validTuples;
+    //residues[i][v] is the last word of validTuples where a support of x[i]=v was found
+    private int[][] residues;
+    private DeltaInt[] deltas;
+    private int[] values; // buffer for the values of a domain or a delta
 
     /**
      * Table constraint.
@@ -42,15 +56,21 @@ public class TableCT extends Constraint {
         super(x[0].getSolver());
         this.x = new IntVar[x.length];
         this.table = table;
+        validTuples = new ReversibleSparseBitSet(cp.getTrail(), Math.max(table.length, 1));
 
         // Allocate supportedByVarVal
-        supports = new BitSet[x.length][];
+        supports = new ReversibleSparseBitSet.StaticBitSet[x.length][];
+        residues = new int[x.length][];
+        int maxSize = 0;
         for (int i = 0; i < x.length; i++) {
             this.x[i] = minus(x[i],x[i].getMin()); // map the variables domain to start at 0
-            supports[i] = new BitSet[x[i].getMax() - x[i].getMin() + 1];
+            supports[i] = new ReversibleSparseBitSet.StaticBitSet[x[i].getMax() - x[i].getMin() + 1];
+            residues[i] = new int[supports[i].length];
             for (int j = 0; j < supports[i].length; j++)
-                supports[i][j] = new BitSet();
+                supports[i][j] = validTuples.new StaticBitSet();
+            maxSize = Math.max(maxSize, x[i].getSize());
         }
+        values = new int[maxSize];
 
         // Set values in supportedByVarVal, which contains all the tuples supported by each var-val pair
         for (int i = 0; i < table.length; i++) { //i is the index of the tuple (in table)
@@ -62,39 +82,88 @@ public class TableCT extends Constraint {
         }
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_SLOW;
+    }
+
     @Override
     public void post() throws InconsistencyException {
-        for (IntVar var : x)
-            var.propagateOnDomainChange(this);
-        propagate();
+        deltas = new DeltaInt[x.length];
+        for (int i = 0; i < x.length; i++) {
+            deltas[i] = x[i].delta(this);
+            x[i].propagateOnDomainChange(this);
+        }
+        // the tuples having a value outside of the domains are invalid from the start
+        for (int i = 0; i < x.length; i++) {
+            resetBasedUpdate(i);
+        }
+        if (table.length == 0 || validTuples.isEmpty()) throw INCONSISTENCY;
+        filterDomains(-1);
     }
 
     @Override
     public void propagate() throws InconsistencyException {
+        int nChanged = 0;
+        int lastChanged = -1;
+        for (int i = 0; i < x.length; i++) {
+            int deltaSize = deltas[i].size();
+            if (deltaSize > 0) {
+                nChanged++;
+                lastChanged = i;
+                if (deltaSize < x[i].getSize()) deltaBasedUpdate(i);
+                else resetBasedUpdate(i);
+                if (validTuples.isEmpty()) throw INCONSISTENCY;
+            }
+        }
+        // the supports of the only changed variable are all in validTuples
+        filterDomains(nChanged == 1 ? lastChanged : -1);
+    }
 
+    /**
+     * Removes the tuples supported by the values removed from x[i]
+     */
+    private void deltaBasedUpdate(int i) {
+        int n = deltas[i].fillArray(values);
+        validTuples.clearMask();
+        for (int k = 0; k < n; k++) {
+            validTuples.addToMask(supports[i][values[k]]);
+        }
+        validTuples.reverseMask();
+        validTuples.intersectWithMask();
+    }
 
-        // Bit-set of tuple indices all set to 0
-        BitSet supportedTuples = new BitSet(table.length);
-        supportedTuples.flip(0,table.length);
-
-        // TODO 1: compute supportedTuples as
-        //       supportedTuples = (supports[0][x[0].getMin()] | ... | supports[0][x[0].getMax()] ) & ... &
-        //                         (supports[x.length][x[0].getMin()] | ... | supports[x.length][x[0].getMax()] )
-        // "|" is the bitwise "or" method on BitSet
-        // "&" is bitwise "and" method on BitSet
-
-
+    /**
+     * Keeps the tuples supported by the values of x[i]
+     */
+    private void resetBasedUpdate(int i) {
+        int n = x[i].fillArray(values);
+        validTuples.clearMask();
+        for (int k = 0; k < n; k++) {
+            validTuples.addToMask(supports[i][values[k]]);
+        }
+        validTuples.intersectWithMask();
+    }
 
-        // TODO 2
+    /**
+     * Removes the values without a valid tuple
+     * @param skip a variable that does not need to be filtered, -1 if none
+     */
+    private void filterDomains(int skip) throws InconsistencyException {
         for (int i = 0; i < x.length; i++) {
-            for (int v = x[i].getMin(); v <= x[i].getMax(); v++) {
-                if (x[i].contains(v)) {
-                    // TODO 2: the condition for removing the value v from x[i] is to check if
-                    //         there is no intersection between supportedTuples and the support[i][v]
+            // the value of a bound variable is in all the valid tuples
+            if (i == skip || x[i].isBound()) continue;
+            int n = x[i].fillArray(values);
+            int nRemoved = 0;
+            for (int k = 0; k < n; k++) {
+                int v = values[k];
+                if (!validTuples.intersects(supports[i][v], residues[i][v])) {
+                    int w = validTuples.intersectIndex(supports[i][v]);
+                    if (w == -1) values[nRemoved++] = v;
+                    else residues[i][v] = w;
                 }
             }
+            if (nRemoved > 0) x[i].removeAll(values, nRemoved);
         }
-
-        throw new NotImplementedException("TableCT");
     }
 }
@@ -22,6 +22,7 @@ import minicp.util.InconsistencyException;
 public class TableDecomp extends Constraint {
     private IntVar[] x;
     private int[][] table;
+    private int[] domain; // buffer for the values of a domain
 
     /**
      * Table constraint. Assignment of x_0=v_0, x_1=v_1,... only valid if there exists a
@@ -34,6 +35,15 @@ public class TableDecomp extends Constraint {
         super(x[0].getSolver());
         this.x = x;
         this.table = table;
+        int maxSize = 0;
+        for (IntVar var : x)
+            maxSize = Math.max(maxSize, var.getSize());
+        domain = new int[maxSize];
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_SLOW;
     }
 
     @Override
@@ -46,24 +56,26 @@ public class TableDecomp extends Constraint {
     @Override
     public void propagate() throws InconsistencyException {
         for (int i = 0; i < x.length; i++) {
-            for (int v = x[i].getMin(); v <= x[i].getMax(); v++) {
-                if (x[i].contains(v)) {
-                    boolean valueIsSupported = false;
-                    for (int tupleIdx = 0; tupleIdx < table.length && !valueIsSupported; tupleIdx++) {
-                        if (table[tupleIdx][i] == v) {
-                            boolean allValueVariableSupported = true;
-                            for (int j = 0; j < x.length && allValueVariableSupported; j++) {
-                                if (!x[j].contains(table[tupleIdx][j])) {
-                                    allValueVariableSupported = false;
-                                }
+            int size = x[i].fillArray(domain);
+            int nUnsupported = 0;
+            for (int k = 0; k < size; k++) {
+                int v = domain[k];
+                boolean valueIsSupported = false;
+                for (int tupleIdx = 0; tupleIdx < table.length && !valueIsSupported; tupleIdx++) {
+                    if (table[tupleIdx][i] == v) {
+                        boolean allValueVariableSupported = true;
+                        for (int j = 0; j < x.length && allValueVariableSupported; j++) {
+                            if (!x[j].contains(table[tupleIdx][j])) {
+                                allValueVariableSupported = false;
                             }
-                            valueIsSupported = allValueVariableSupported;
                         }
+                        valueIsSupported = allValueVariableSupported;
                     }
-                    if (!valueIsSupported)
-                        x[i].remove(v);
                 }
+                if (!valueIsSupported)
+                    domain[nUnsupported++] = v;
             }
+            x[i].removeAll(domain, nUnsupported);
         }
     }
 }
\ No newline at end of file
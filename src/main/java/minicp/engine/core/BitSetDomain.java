@@ -0,0 +1,266 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.reversible.Copyable;
+import minicp.reversible.ReversibleLong;
+import minicp.reversible.Trail;
+import minicp.util.InconsistencyException;
+
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Domain for small ranges, represented by a few reversible words.
+ * Bit i of the words is set iff the value min+i is in the domain,
+ * the bounds are found with Long.numberOfTrailingZeros and Long.numberOfLeadingZeros.
+ * The removed values are logged at the position given by the domain size
+ * when they are removed, as in a sparse set, to compute the deltas.
+ * With a {@link minicp.reversible.Copier} this log is copied as well.
+ */
+public class BitSetDomain extends IntDomain implements Copyable {
+
+    /**
+     * Maximum number of values of a bitset domain
+     */
+    public static final int MAX_SIZE = 4 * 64;
+
+    private final ReversibleLong[] words;
+    private final int offset;
+    private final int n;
+    // removed[n-s] is the value removed when the size of the domain was s
+    private final int[] removed;
+
+    /**
+     * @param trail
+     * @param min
+     * @param max >= min, with max-min < MAX_SIZE
+     */
+    public BitSetDomain(Trail trail, int min, int max) {
+        assert (max - min < MAX_SIZE);
+        offset = min;
+        n = max - min + 1;
+        words = new ReversibleLong[(n + 63) >>> 6];
+        for (int i = 0; i < words.length - 1; i++) {
+            words[i] = new ReversibleLong(trail, -1L);
+        }
+        words[words.length - 1] = new ReversibleLong(trail, -1L >>> (words.length * 64 - n));
+        removed = new int[n];
+        trail.register(this);
+    }
+
+    private int minIndex() {
+        for (int i = 0; i < words.length; i++) {
+            long w = words[i].getValue();
+            if (w != 0) return (i << 6) + Long.numberOfTrailingZeros(w);
+        }
+        return -1;
+    }
+
+    private int maxIndex() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            long w = words[i].getValue();
+            if (w != 0) return (i << 6) + 63 - Long.numberOfLeadingZeros(w);
+        }
+        return -1;
+    }
+
+    public int getMin() {
+        return minIndex() + offset;
+    }
+
+    public int getMax() {
+        return maxIndex() + offset;
+    }
+
+    public int getSize() {
+        int s = 0;
+        for (ReversibleLong w : words) {
+            s += Long.bitCount(w.getValue());
+        }
+        return s;
+    }
+
+    public boolean contains(int v) {
+        long i = (long) v - offset;
+        if (i < 0 || i >= n) return false;
+        return (words[(int) i >>> 6].getValue() & (1L << i)) != 0;
+    }
+
+    public boolean isBound() {
+        return getSize() == 1;
+    }
+
+    /**
+     * Clears the bits of word w set in mask and logs the corresponding values
+     * @param s the size of the domain before the removal
+     * @return the size of the domain after the removal
+     */
+    private int clear(int w, long mask, int s) {
+        long word = words[w].getValue();
+        long bits = word & mask;
+        while (bits != 0) {
+            removed[n - s] = (w << 6) + Long.numberOfTrailingZeros(bits) + offset;
+            s--;
+            bits &= bits - 1;
+        }
+        words[w].setValue(word & ~mask);
+        return s;
+    }
+
+    public void remove(int v, DomainListener x) throws InconsistencyException {
+        if (contains(v)) {
+            boolean maxChanged = getMax() == v;
+            boolean minChanged = getMin() == v;
+            int i = v - offset;
+            int s = clear(i >>> 6, 1L << i, getSize());
+            if (s == 0) throw INCONSISTENCY;
+            x.change(s);
+            if (maxChanged) x.removeAbove(s);
+            if (minChanged) x.removeBelow(s);
+            if (s == 1) x.bind();
+        }
+    }
+
+    public void removeAllBut(int v, DomainListener x) throws InconsistencyException {
+        if (contains(v)) {
+            int s = getSize();
+            if (s != 1) {
+                boolean maxChanged = getMax() != v;
+                boolean minChanged = getMin() != v;
+                int i = v - offset;
+                for (int w = 0; w < words.length; w++) {
+                    s = clear(w, w == (i >>> 6) ? ~(1L << i) : -1L, s);
+                }
+                x.bind();
+                x.change(s);
+                if (maxChanged) x.removeAbove(s);
+                if (minChanged) x.removeBelow(s);
+            }
+        }
+        else {
+            int s = getSize();
+            for (int w = 0; w < words.length; w++) {
+                s = clear(w, -1L, s);
+            }
+            throw INCONSISTENCY;
+        }
+    }
+
+    @Override
+    public int retainAll(int [] values, int count, DomainListener x) throws InconsistencyException {
+        int oldMin = getMin();
+        int oldMax = getMax();
+        int oldSize = getSize();
+        int s = oldSize;
+        for (int w = 0; w < words.length; w++) {
+            // the bits of the kept values in this word
+            long kept = 0;
+            for (int k = 0; k < count; k++) {
+                int i = index(values[k]);
+                if (i >= 0 && i < n && (i >>> 6) == w) kept |= 1L << i;
+            }
+            s = clear(w, ~kept, s);
+        }
+        if (s == 0) throw INCONSISTENCY;
+        notifyChanges(oldMin, oldMax, oldSize, x);
+        return s;
+    }
+
+    /**
+     * @return the index of value, clamped to [-1,n]:
+     *         value - offset would overflow for extreme values
+     */
+    private int index(int value) {
+        long i = (long) value - offset;
+        return (int) Math.max(-1, Math.min(i, n));
+    }
+
+    public int removeBelow(int value, DomainListener x) throws InconsistencyException {
+        if (getMin() < value) {
+            int i = index(value);
+            int s = getSize();
+            for (int w = 0; w < (i >>> 6); w++) {
+                s = clear(w, -1L, s);
+            }
+            if ((i & 63) != 0) s = clear(i >>> 6, (1L << i) - 1, s);
+            if (s == 0) throw INCONSISTENCY;
+            x.removeBelow(s);
+            x.change(s);
+            if (s == 1) x.bind();
+        }
+        return getMin();
+    }
+
+    public int removeAbove(int value, DomainListener x) throws InconsistencyException {
+        if (getMax() > value) {
+            int i = index(value);
+            int s = getSize();
+            for (int w = words.length - 1; w > (i >> 6); w--) {
+                s = clear(w, -1L, s);
+            }
+            if (i >= 0 && (i & 63) != 63) s = clear(i >>> 6, -2L << i, s);
+            if (s == 0) throw INCONSISTENCY;
+            x.removeAbove(s);
+            x.change(s);
+            if (s == 1) x.bind();
+        }
+        return getMax();
+    }
+
+    public int fillArray(int [] dest) {
+        int n = 0;
+        for (int w = 0; w < words.length; w++) {
+            long bits = words[w].getValue();
+            while (bits != 0) {
+                dest[n++] = (w << 6) + Long.numberOfTrailingZeros(bits) + offset;
+                bits &= bits - 1;
+            }
+        }
+        return n;
+    }
+
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int [] dest) {
+        int d = oldSize - getSize();
+        System.arraycopy(removed, n - oldSize, dest, 0, d);
+        return d;
+    }
+
+    // the words are copied as reversible objects registered before the domain,
+    // they are already restored when the log is
+
+    @Override
+    public int stateSize() {
+        return n - getSize();
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        int d = n - getSize();
+        for (int i = 0; i < d; i++) {
+            buffer[offset + i] = removed[i];
+        }
+        return d;
+    }
+
+    @Override
+    public int restore(long[] buffer, int offset) {
+        int d = n - getSize();
+        for (int i = 0; i < d; i++) {
+            removed[i] = (int) buffer[offset + i];
+        }
+        return d;
+    }
+}
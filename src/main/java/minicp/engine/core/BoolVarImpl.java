@@ -20,7 +20,7 @@ import minicp.util.InconsistencyException;
 public class BoolVarImpl extends IntVarImpl implements BoolVar {
 
     public BoolVarImpl(Solver cp) {
-        super(cp,0,1);
+        super(cp,new BitSetDomain(cp.getTrail(),0,1));
     }
 
     @Override
@@ -17,11 +17,30 @@ package minicp.engine.core;
 import minicp.reversible.ReversibleBool;
 import minicp.util.InconsistencyException;
 
+import java.util.Arrays;
+
 public abstract class Constraint {
 
+    /**
+     * Priority of cheap constraints such as the binary ones,
+     * they are propagated first
+     */
+    public static final int PRIORITY_FAST = 0;
+    /**
+     * Default priority
+     */
+    public static final int PRIORITY_MEDIUM = 1;
+    /**
+     * Priority of the expensive global constraints,
+     * they are propagated once the other ones have reached their fix point
+     */
+    public static final int PRIORITY_SLOW = 2;
+    public static final int NUMBER_OF_PRIORITIES = 3;
+
     protected final Solver cp;
     protected boolean scheduled = false;
     protected final ReversibleBool active;
+    private DeltaInt[] deltas = new DeltaInt[0];
 
     public Constraint(Solver cp) {
         this.cp = cp;
@@ -36,6 +55,29 @@ public abstract class Constraint {
         active.setValue(false);
     }
 
+    /**
+     * @return the cost class of the propagate() method,
+     *         one of PRIORITY_FAST, PRIORITY_MEDIUM or PRIORITY_SLOW
+     */
+    public int getPriority() {
+        return PRIORITY_MEDIUM;
+    }
+
+    void registerDelta(DeltaInt delta) {
+        deltas = Arrays.copyOf(deltas, deltas.length + 1);
+        deltas[deltas.length - 1] = delta;
+    }
+
+    /**
+     * Called by the solver after propagate()
+     * such that the deltas are relative to the last propagation
+     */
+    void updateDeltas() {
+        for (DeltaInt d : deltas) {
+            d.update();
+        }
+    }
+
     public abstract void post() throws InconsistencyException;
     public void propagate() throws InconsistencyException {}
 }
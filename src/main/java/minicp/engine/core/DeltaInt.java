@@ -0,0 +1,116 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.reversible.ReversibleIntTuple;
+
+import java.util.Arrays;
+
+/**
+ * The values removed from the domain of a variable since
+ * the last call to propagate() of a constraint.
+ * The removed values are obtained in O(number of removed values)
+ * from the sparse-set ordering of the domain.
+ * The snapshot of the domain is reversible, so the delta remains
+ * valid after a backtrack.
+ */
+public class DeltaInt {
+
+    private static final int MIN = 0;
+    private static final int MAX = 1;
+    private static final int SIZE = 2;
+
+    private final IntVar x;
+    private final ReversibleIntTuple snapshot;
+
+    /**
+     * Creates a delta of x updated after each call to c.propagate()
+     * @param x
+     * @param c
+     * @see IntVar#delta(Constraint)
+     */
+    DeltaInt(IntVar x, Constraint c) {
+        this.x = x;
+        this.snapshot = new ReversibleIntTuple(c.cp.getTrail(), x.getMin(), x.getMax(), x.getSize());
+        c.registerDelta(this);
+    }
+
+    void update() {
+        snapshot.set(MIN, x.getMin());
+        snapshot.set(MAX, x.getMax());
+        snapshot.set(SIZE, x.getSize());
+    }
+
+    /**
+     * @return the minimum of the domain at the last update
+     */
+    public int oldMin() {
+        return snapshot.get(MIN);
+    }
+
+    /**
+     * @return the maximum of the domain at the last update
+     */
+    public int oldMax() {
+        return snapshot.get(MAX);
+    }
+
+    /**
+     * @return the size of the domain at the last update
+     */
+    public int oldSize() {
+        return snapshot.get(SIZE);
+    }
+
+    /**
+     * @return the number of values removed since the last update
+     */
+    public int size() {
+        return snapshot.get(SIZE) - x.getSize();
+    }
+
+    /**
+     * @return true if at least one value was removed since the last update
+     */
+    public boolean changed() {
+        return size() > 0;
+    }
+
+    public boolean minChanged() {
+        return x.getMin() != snapshot.get(MIN);
+    }
+
+    public boolean maxChanged() {
+        return x.getMax() != snapshot.get(MAX);
+    }
+
+    /**
+     * set the first values of <code>dest</code> to the ones
+     * removed since the last update
+     * @param dest, an array large enough dest.length >= size()
+     * @return the number of removed values
+     */
+    public int fillArray(int [] dest) {
+        return x.fillDeltaArray(snapshot.get(MIN), snapshot.get(MAX), snapshot.get(SIZE), dest);
+    }
+
+    @Override
+    public String toString() {
+        int [] values = new int[size()];
+        fillArray(values);
+        return Arrays.toString(values);
+    }
+}
@@ -17,9 +17,18 @@ package minicp.engine.core;
 
 import minicp.util.InconsistencyException;
 
+import java.util.Arrays;
+
 
 public abstract class IntDomain {
 
+    protected static final DomainListener NO_EVENT = new DomainListener() {
+        public void bind() {}
+        public void change(int domainSize) {}
+        public void removeBelow(int domainSize) {}
+        public void removeAbove(int domainSize) {}
+    };
+
     public abstract int getMin();
 
     public abstract  int getMax();
@@ -38,17 +47,65 @@ public abstract class IntDomain {
 
     public abstract  int removeAbove(int value, DomainListener x) throws InconsistencyException;
 
+    /**
+     * Removes the first count values of the array in one pass,
+     * the events are notified once to x after all the removals
+     * @return the new size
+     */
+    public int removeAll(int [] values, int count, DomainListener x) throws InconsistencyException {
+        int oldMin = getMin();
+        int oldMax = getMax();
+        int oldSize = getSize();
+        for (int i = 0; i < count; i++) {
+            remove(values[i], NO_EVENT);
+        }
+        notifyChanges(oldMin, oldMax, oldSize, x);
+        return getSize();
+    }
+
+    /**
+     * Removes all the values but the first count values of the array in one pass,
+     * in any order and without allocation,
+     * the events are notified once to x after all the removals
+     * @return the new size
+     */
+    public abstract int retainAll(int [] values, int count, DomainListener x) throws InconsistencyException;
+
+    protected void notifyChanges(int oldMin, int oldMax, int oldSize, DomainListener x) {
+        int size = getSize();
+        if (size != oldSize) {
+            x.change(size);
+            if (getMax() != oldMax) x.removeAbove(size);
+            if (getMin() != oldMin) x.removeBelow(size);
+            if (size == 1) x.bind();
+        }
+    }
+
+    /**
+     * Copies the values of the domain in dest, in no particular order
+     * @param dest an array large enough dest.length >= getSize()
+     * @return the size of the domain
+     */
+    public abstract  int fillArray(int [] dest);
+
+    /**
+     * Copies in dest the values removed since the domain had
+     * the given min, max and size, without backtrack in between.
+     * @return the number of removed values
+     */
+    public abstract  int fillDeltaArray(int oldMin, int oldMax, int oldSize, int [] dest);
+
     @Override
     public String toString() {
         StringBuilder b = new StringBuilder();
         b.append("{");
-        for (int i = getMin(); i <= getMax() - 1; i++) {
-            if (contains((i))) {
-                b.append(i);
-                b.append(',');
-            }
+        int [] values = new int[getSize()];
+        int n = fillArray(values);
+        Arrays.sort(values, 0, n);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) b.append(',');
+            b.append(values[i]);
         }
-        if (getSize() > 0) b.append(getMax());
         b.append("}");
         return b.toString();
     }
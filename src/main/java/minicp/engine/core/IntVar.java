@@ -127,4 +127,51 @@ public interface IntVar {
      */
     int removeAbove(int v) throws InconsistencyException;
 
+
+    /**
+     * Remove the first count values of the array,
+     * the constraints are notified once for all the removals
+     * @param values
+     * @param count
+     * @throws InconsistencyException
+     */
+    void removeAll(int [] values, int count) throws InconsistencyException;
+
+    /**
+     * Remove all the values but the first count values of the array,
+     * the constraints are notified once for all the removals
+     * @param values
+     * @param count
+     * @throws InconsistencyException
+     */
+    void retainAll(int [] values, int count) throws InconsistencyException;
+
+    /**
+     * Copies the values of the domain in dest, in no particular order.
+     * This is the way to iterate over the domain:
+     * the cost is linear in the size of the domain rather than in its range.
+     * @param dest an array large enough dest.length >= getSize()
+     * @return the size of the domain
+     */
+    int fillArray(int [] dest);
+
+    /**
+     * Copies in dest the values removed from the domain
+     * since it had the given min, max and size.
+     * This is only valid if there was no backtrack in between.
+     * @param oldMin
+     * @param oldMax
+     * @param oldSize
+     * @param dest an array large enough dest.length >= oldSize - getSize()
+     * @return the number of removed values
+     */
+    int fillDeltaArray(int oldMin, int oldMax, int oldSize, int [] dest);
+
+    /**
+     * Return the values removed from the domain since
+     * the last call to c.propagate() (or since the creation of the delta)
+     * @param c the constraint that uses the delta
+     * @return a delta of the domain updated after each call to c.propagate()
+     */
+    DeltaInt delta(Constraint c);
 }
@@ -15,39 +15,39 @@
 
 package minicp.engine.core;
 
-import minicp.reversible.ReversibleStack;
+import minicp.reversible.ReversibleSwapList;
 import minicp.util.InconsistencyException;
-import minicp.util.NotImplementedException;
 
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 import java.util.Set;
 
 public class IntVarImpl implements IntVar {
 
     private Solver cp;
     private IntDomain domain;
-    private ReversibleStack<Constraint> onDomain;
-    private ReversibleStack<Constraint> onBind;
-    private ReversibleStack<Constraint> onBounds;
+    private ReversibleSwapList<Constraint> onDomain;
+    private ReversibleSwapList<Constraint> onBind;
+    private ReversibleSwapList<Constraint> onBounds;
     private DomainListener domListener = new DomainListener() {
         @Override
         public void bind() {
-            scheduleAll(onBind);
+            scheduleAll(onBind, false);
         }
 
         @Override
         public void change(int domainSize) {
-            scheduleAll(onDomain);
+            scheduleAll(onDomain, domainSize > 1);
         }
 
         @Override
         public void removeBelow(int domainSize) {
-            scheduleAll(onBounds);
+            scheduleAll(onBounds, domainSize > 1);
         }
 
         @Override
         public void removeAbove(int domainSize) {
-            scheduleAll(onBounds);
+            scheduleAll(onBounds, domainSize > 1);
         }
     };
 
@@ -69,13 +69,48 @@ public class IntVarImpl implements IntVar {
      * @param max >= min
      */
     public IntVarImpl(Solver cp, int min, int max) {
-        if (min > max) throw new InvalidParameterException("at least one value in the domain");
+        this(cp, makeDomain(cp, min, max));
+    }
+
+    /**
+     * Create a variable with the given initial domain
+     * @param cp
+     * @param domain
+     */
+    public IntVarImpl(Solver cp, IntDomain domain) {
         this.cp = cp;
         cp.registerVar(this);
-        domain = new SparseSetDomain(cp.getTrail(),min,max);
-        onDomain = new ReversibleStack<>(cp.getTrail());
-        onBind  = new ReversibleStack<>(cp.getTrail());
-        onBounds = new ReversibleStack<>(cp.getTrail());
+        this.domain = domain;
+        onDomain = new ReversibleSwapList<>(cp.getTrail());
+        onBind  = new ReversibleSwapList<>(cp.getTrail());
+        onBounds = new ReversibleSwapList<>(cp.getTrail());
+    }
+
+    /**
+     * @return a bitset domain for small ranges, an interval domain for wide ones,
+     *         that becomes exact on the first removal of an interior value,
+     *         a sparse-set domain otherwise
+     */
+    private static IntDomain makeDomain(Solver cp, int min, int max) {
+        if (min > max) throw new InvalidParameterException("at least one value in the domain");
+        long size = (long) max - min + 1;
+        if (size <= BitSetDomain.MAX_SIZE) return new BitSetDomain(cp.getTrail(),min,max);
+        else if (size >= IntervalDomain.MIN_SIZE) return new IntervalDomain(cp.getTrail(),min,max);
+        else return new SparseSetDomain(cp.getTrail(),min,max);
+    }
+
+    /**
+     * @return a domain with a range if the values are consecutive,
+     *         a sparse-value domain otherwise
+     */
+    private static IntDomain makeDomain(Solver cp, Set<Integer> values) {
+        if (values.isEmpty()) throw new InvalidParameterException("at least one value in the domain");
+        int[] v = new int[values.size()];
+        int i = 0;
+        for (int value : values) v[i++] = value;
+        Arrays.sort(v);
+        if ((long) v[v.length - 1] - v[0] + 1 == v.length) return makeDomain(cp, v[0], v[v.length - 1]);
+        else return new SparseValueDomain(cp.getTrail(), v);
     }
 
     public Solver getSolver() {
@@ -88,7 +123,7 @@ public class IntVarImpl implements IntVar {
      * @param values
      */
     public IntVarImpl(Solver cp, Set<Integer> values) {
-        throw new NotImplementedException();
+        this(cp, makeDomain(cp, values));
     }
 
 
@@ -102,30 +137,46 @@ public class IntVarImpl implements IntVar {
     }
 
     public void whenDomainChange(ConstraintClosure.Filtering c) {
-        onDomain.push(new ConstraintClosure(cp,c));
+        onDomain.add(new ConstraintClosure(cp,c));
     }
 
     public void whenBind(ConstraintClosure.Filtering c) {
-        onBind.push(new ConstraintClosure(cp,c));
+        onBind.add(new ConstraintClosure(cp,c));
     }
 
     public void whenBoundsChange(ConstraintClosure.Filtering c) {
-        onBounds.push(new ConstraintClosure(cp,c));
+        onBounds.add(new ConstraintClosure(cp,c));
     }
 
     public void propagateOnDomainChange(Constraint c) {
-        onDomain.push(c);
+        onDomain.add(c);
     }
 
     public void propagateOnBind(Constraint c) {
-        onBind.push(c);
+        onBind.add(c);
     }
 
-    public void propagateOnBoundChange(Constraint c) { onBounds.push(c);}
+    public void propagateOnBoundChange(Constraint c) { onBounds.add(c);}
 
-    private void scheduleAll(ReversibleStack<Constraint> constraints) {
-        for (int i = 0; i < constraints.size(); i++)
-            cp.schedule(constraints.get(i));
+    /**
+     * Schedules the active constraints of the list
+     * @param prune if true the deactivated constraints are removed from the list (until backtrack).
+     *              This only pays off if the list is visited again, i.e. if the variable is not bound.
+     */
+    private void scheduleAll(ReversibleSwapList<Constraint> constraints, boolean prune) {
+        int i = 0;
+        while (i < constraints.size()) {
+            Constraint c = constraints.get(i);
+            if (c.isActive()) {
+                cp.schedule(c);
+                i++;
+            }
+            else if (prune) {
+                // the last constraint is swapped at position i and visited next
+                constraints.remove(i);
+            }
+            else i++;
+        }
     }
 
     public int getMin() {
@@ -144,20 +195,63 @@ public class IntVarImpl implements IntVar {
         return domain.contains(v);
     }
 
+    // the size of the domain before a removal, only needed when profiling
+    private int sizeIfProfiling() {
+        return cp.profiler == null ? 0 : domain.getSize();
+    }
+
+    private void profilePruned(int sizeBefore) {
+        if (cp.profiler != null) cp.profiler.pruned(sizeBefore - domain.getSize());
+    }
+
     public void remove(int v) throws InconsistencyException {
+        int s = sizeIfProfiling();
         domain.remove(v, domListener);
+        profilePruned(s);
     }
 
     public void assign(int v) throws InconsistencyException {
+        int s = sizeIfProfiling();
         domain.removeAllBut(v, domListener);
+        profilePruned(s);
     }
 
     public int removeBelow(int v) throws InconsistencyException {
-        return domain.removeBelow(v, domListener);
+        int s = sizeIfProfiling();
+        int min = domain.removeBelow(v, domListener);
+        profilePruned(s);
+        return min;
     }
 
     public int removeAbove(int v) throws InconsistencyException {
-        return domain.removeAbove(v, domListener);
+        int s = sizeIfProfiling();
+        int max = domain.removeAbove(v, domListener);
+        profilePruned(s);
+        return max;
+    }
+
+    public void removeAll(int [] values, int count) throws InconsistencyException {
+        int s = sizeIfProfiling();
+        domain.removeAll(values, count, domListener);
+        profilePruned(s);
+    }
+
+    public void retainAll(int [] values, int count) throws InconsistencyException {
+        int s = sizeIfProfiling();
+        domain.retainAll(values, count, domListener);
+        profilePruned(s);
+    }
+
+    public int fillArray(int [] dest) {
+        return domain.fillArray(dest);
+    }
+
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int [] dest) {
+        return domain.fillDeltaArray(oldMin, oldMax, oldSize, dest);
+    }
+
+    public DeltaInt delta(Constraint c) {
+        return new DeltaInt(this, c);
     }
 
 }
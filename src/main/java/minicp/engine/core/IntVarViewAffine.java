@@ -0,0 +1,243 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+
+import minicp.util.InconsistencyException;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
+/**
+ * View y = a*x + b with a != 0.
+ * A view created on top of another affine view is flattened
+ * such that a chain of views costs a single indirection,
+ * unless the composed coefficients overflow.
+ * The values of the view must fit in an int: this is checked
+ * on creation, and the domain of x only shrinks afterwards.
+ */
+public class IntVarViewAffine implements IntVar {
+
+    private final IntVar x;
+    private final int a;
+    private final int b;
+    private int [] buffer = new int[0];
+
+    public IntVarViewAffine(IntVar x, int a, int b) { // y = a*x + b
+        assert(a != 0);
+        IntVar x1 = x;
+        int a1 = a;
+        int b1 = b;
+        if (x instanceof IntVarViewAffine) {
+            // a*(a'*x'+b')+b = (a*a')*x' + (a*b'+b)
+            IntVarViewAffine y = (IntVarViewAffine) x;
+            long a2 = (long) a * y.a;
+            long b2 = (long) a * y.b + b;
+            // otherwise kept as a view of the view
+            if (fits(a2) && fits(b2)) {
+                x1 = y.x;
+                a1 = (int) a2;
+                b1 = (int) b2;
+            }
+        }
+        this.x = x1;
+        this.a = a1;
+        this.b = b1;
+        if (!fits((long) a1 * x1.getMin() + b1) || !fits((long) a1 * x1.getMax() + b1)) {
+            throw new InvalidParameterException("the values of the view do not fit in an int");
+        }
+    }
+
+    private static boolean fits(long v) {
+        return Integer.MIN_VALUE <= v && v <= Integer.MAX_VALUE;
+    }
+
+    // true if v = a*x+b for some int x, given w = v-b
+    private boolean isImage(long w) {
+        return w % a == 0 && fits(w / a);
+    }
+
+    private static int clamp(long v) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, v));
+    }
+
+    // the greatest value of x with a*x+b <= v when a > 0 (resp. >= v when a < 0)
+    private int floorInverse(int v) {
+        return clamp(Math.floorDiv((long) v - b, a));
+    }
+
+    // the smallest value of x with a*x+b >= v when a > 0 (resp. <= v when a < 0)
+    private int ceilInverse(int v) {
+        return clamp(-Math.floorDiv(b - (long) v, a));
+    }
+
+    @Override
+    public Solver getSolver() {
+        return x.getSolver();
+    }
+
+    @Override
+    public void whenDomainChange(ConstraintClosure.Filtering c) {
+        x.whenDomainChange(c);
+    }
+
+    @Override
+    public void whenBind(ConstraintClosure.Filtering c) {
+        x.whenBind(c);
+    }
+
+    @Override
+    public void whenBoundsChange(ConstraintClosure.Filtering c) {
+        x.whenBoundsChange(c);
+    }
+
+    @Override
+    public void propagateOnDomainChange(Constraint c) {
+        x.propagateOnDomainChange(c);
+    }
+
+    @Override
+    public void propagateOnBind(Constraint c) {
+        x.propagateOnBind(c);
+    }
+
+    @Override
+    public void propagateOnBoundChange(Constraint c) {
+        x.propagateOnBoundChange(c);
+    }
+
+    @Override
+    public int getMin() {
+        return a > 0 ? a * x.getMin() + b : a * x.getMax() + b;
+    }
+
+    @Override
+    public int getMax() {
+        return a > 0 ? a * x.getMax() + b : a * x.getMin() + b;
+    }
+
+    @Override
+    public int getSize() {
+        return x.getSize();
+    }
+
+    @Override
+    public boolean isBound() {
+        return x.isBound();
+    }
+
+    @Override
+    public boolean contains(int v) {
+        long w = (long) v - b;
+        return isImage(w) && x.contains((int) (w / a));
+    }
+
+    @Override
+    public void remove(int v) throws InconsistencyException {
+        long w = (long) v - b;
+        if (isImage(w)) {
+            x.remove((int) (w / a));
+        }
+    }
+
+    @Override
+    public void assign(int v) throws InconsistencyException {
+        long w = (long) v - b;
+        if (isImage(w)) {
+            x.assign((int) (w / a));
+        } else {
+            throw INCONSISTENCY;
+        }
+    }
+
+    @Override
+    public int removeBelow(int v) throws InconsistencyException {
+        if (a > 0) x.removeBelow(ceilInverse(v));
+        else x.removeAbove(floorInverse(v));
+        return getMin();
+    }
+
+    @Override
+    public int removeAbove(int v) throws InconsistencyException {
+        if (a > 0) x.removeAbove(floorInverse(v));
+        else x.removeBelow(ceilInverse(v));
+        return getMax();
+    }
+
+    @Override
+    public void removeAll(int [] values, int count) throws InconsistencyException {
+        int n = mapValues(values, count);
+        x.removeAll(buffer, n);
+    }
+
+    @Override
+    public void retainAll(int [] values, int count) throws InconsistencyException {
+        int n = mapValues(values, count);
+        x.retainAll(buffer, n);
+    }
+
+    // sets buffer to the values of x corresponding to the given values
+    private int mapValues(int [] values, int count) {
+        if (buffer.length < count) buffer = new int[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            long w = (long) values[i] - b;
+            if (isImage(w)) buffer[n++] = (int) (w / a);
+        }
+        return n;
+    }
+
+    @Override
+    public int fillArray(int [] dest) {
+        int n = x.fillArray(dest);
+        for (int i = 0; i < n; i++) {
+            dest[i] = a * dest[i] + b;
+        }
+        return n;
+    }
+
+    @Override
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int [] dest) {
+        // a*x may not fit in an int when b does not have the sign of a*x
+        int xMin = (int) ((a > 0 ? (long) oldMin - b : (long) oldMax - b) / a);
+        int xMax = (int) ((a > 0 ? (long) oldMax - b : (long) oldMin - b) / a);
+        int n = x.fillDeltaArray(xMin, xMax, oldSize, dest);
+        for (int i = 0; i < n; i++) {
+            dest[i] = a * dest[i] + b;
+        }
+        return n;
+    }
+
+    @Override
+    public DeltaInt delta(Constraint c) {
+        return new DeltaInt(this, c);
+    }
+
+    @Override
+    public String toString() {
+        int [] values = new int[getSize()];
+        int n = fillArray(values);
+        Arrays.sort(values, 0, n);
+        StringBuilder s = new StringBuilder("{");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) s.append(',');
+            s.append(values[i]);
+        }
+        return s.append('}').toString();
+    }
+}
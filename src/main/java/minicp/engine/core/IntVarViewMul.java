@@ -16,115 +16,13 @@
 
 package minicp.engine.core;
 
-
-import minicp.util.InconsistencyException;
-
-public class IntVarViewMul implements IntVar {
-
-    private final int a;
-    private final IntVar x;
+/**
+ * View y = a*x with a > 0, an affine view without offset
+ */
+public class IntVarViewMul extends IntVarViewAffine {
 
     public IntVarViewMul(IntVar x, int a) {
+        super(x, a, 0);
         assert(a > 0);
-        this.a = a;
-        this.x = x;
-    }
-
-    @Override
-    public Solver getSolver() {
-        return x.getSolver();
-    }
-
-    @Override
-    public void whenDomainChange(ConstraintClosure.Filtering c) {
-        x.whenDomainChange(c);
-    }
-
-    @Override
-    public void whenBind(ConstraintClosure.Filtering c) {
-        x.whenBind(c);
-    }
-
-    @Override
-    public void whenBoundsChange(ConstraintClosure.Filtering c) {
-        x.whenBoundsChange(c);
-    }
-
-    @Override
-    public void propagateOnDomainChange(Constraint c) {
-        x.propagateOnDomainChange(c);
-    }
-
-    @Override
-    public void propagateOnBind(Constraint c) {
-        x.propagateOnBind(c);
-    }
-
-    @Override
-    public void propagateOnBoundChange(Constraint c) {
-        x.propagateOnBoundChange(c);
-    }
-
-    @Override
-    public int getMin() {
-        return a * x.getMin();
-    }
-
-    @Override
-    public int getMax() {
-        return a * x.getMax();
-    }
-
-    @Override
-    public int getSize() {
-        return x.getSize();
-    }
-
-    @Override
-    public boolean isBound() {
-        return x.isBound();
-    }
-
-    @Override
-    public boolean contains(int v) {
-        return (v % a != 0) ? false : x.contains(v / a);
-    }
-
-    @Override
-    public void remove(int v) throws InconsistencyException {
-        if (v % a == 0) {
-            x.remove(v / a);
-        }
-    }
-
-    @Override
-    public void assign(int v) throws InconsistencyException {
-        if (v % a == 0) {
-            x.assign(v / a);
-        } else {
-            throw new InconsistencyException();
-        }
-    }
-
-    @Override
-    public int removeBelow(int v) throws InconsistencyException {
-        return (x.removeBelow(ceilDiv(v, a))) * a;
-    }
-
-    @Override
-    public int removeAbove(int v) throws InconsistencyException {
-        return (x.removeAbove(floorDiv(v, a))) * a;
-    }
-
-
-    // Java's division always rounds to the integer closest to zero, but we need flooring/ceiling versions.
-    private int floorDiv(int a, int b) {
-        int q = a / b;
-        return (a < 0 && q * b != a) ? q - 1 : q;
-    }
-
-    private int ceilDiv(int a, int b) {
-        int q = a / b;
-        return (a > 0 && q * b != a) ? q + 1 : q;
     }
 }
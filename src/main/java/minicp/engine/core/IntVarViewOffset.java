@@ -16,97 +16,12 @@
 
 package minicp.engine.core;
 
-
-import minicp.util.InconsistencyException;
-
-public class IntVarViewOffset implements IntVar {
-
-    private final IntVar x;
-    private final int o;
+/**
+ * View y = x + o, an affine view with a unit factor
+ */
+public class IntVarViewOffset extends IntVarViewAffine {
 
     public IntVarViewOffset(IntVar x, int offset) { // y = x + o
-        this.x = x;
-        this.o = offset;
-    }
-
-    @Override
-    public Solver getSolver() {
-        return x.getSolver();
-    }
-
-    @Override
-    public void whenDomainChange(ConstraintClosure.Filtering c) {
-        x.whenDomainChange(c);
-    }
-
-    @Override
-    public void whenBind(ConstraintClosure.Filtering c) {
-        x.whenBind(c);
+        super(x, 1, offset);
     }
-
-    @Override
-    public void whenBoundsChange(ConstraintClosure.Filtering c) {
-        x.whenBoundsChange(c);
-    }
-
-    @Override
-    public void propagateOnDomainChange(Constraint c) {
-        x.propagateOnDomainChange(c);
-    }
-
-    @Override
-    public void propagateOnBind(Constraint c) {
-        x.propagateOnBind(c);
-    }
-
-    @Override
-    public void propagateOnBoundChange(Constraint c) {
-        x.propagateOnBoundChange(c);
-    }
-
-    @Override
-    public int getMin() {
-        return x.getMin() + o;
-    }
-
-    @Override
-    public int getMax() {
-        return x.getMax() + o;
-    }
-
-    @Override
-    public int getSize() {
-        return x.getSize();
-    }
-
-    @Override
-    public boolean isBound() {
-        return x.isBound();
-    }
-
-    @Override
-    public boolean contains(int v) {
-        return x.contains(v - o);
-    }
-
-    @Override
-    public void remove(int v) throws InconsistencyException {
-        x.remove(v - o);
-    }
-
-    @Override
-    public void assign(int v) throws InconsistencyException {
-        x.assign(v - o);
-    }
-
-    @Override
-    public int removeBelow(int v) throws InconsistencyException {
-        return x.removeBelow(v - o);
-    }
-
-    @Override
-    public int removeAbove(int v) throws InconsistencyException {
-        return x.removeAbove(v - o);
-    }
-
 }
@@ -16,95 +16,12 @@
 
 package minicp.engine.core;
 
-
-import minicp.util.InconsistencyException;
-
-public class IntVarViewOpposite implements IntVar {
-
-    private final IntVar x;
+/**
+ * View y = -x, an affine view with a factor -1
+ */
+public class IntVarViewOpposite extends IntVarViewAffine {
 
     public IntVarViewOpposite(IntVar x) {
-        this.x = x;
-    }
-
-    @Override
-    public Solver getSolver() {
-        return x.getSolver();
-    }
-
-    @Override
-    public void whenDomainChange(ConstraintClosure.Filtering c) {
-        x.whenDomainChange(c);
-    }
-
-    @Override
-    public void whenBind(ConstraintClosure.Filtering c) {
-        x.whenBind(c);
+        super(x, -1, 0);
     }
-
-    @Override
-    public void whenBoundsChange(ConstraintClosure.Filtering c) {
-        x.whenBoundsChange(c);
-    }
-
-    @Override
-    public void propagateOnDomainChange(Constraint c) {
-        x.propagateOnDomainChange(c);
-    }
-
-    @Override
-    public void propagateOnBind(Constraint c) {
-        x.propagateOnBind(c);
-    }
-
-    @Override
-    public void propagateOnBoundChange(Constraint c) {
-        x.propagateOnBoundChange(c);
-    }
-
-    @Override
-    public int getMin() {
-        return -x.getMax();
-    }
-
-    @Override
-    public int getMax() {
-        return -x.getMin();
-    }
-
-    @Override
-    public int getSize() {
-        return x.getSize();
-    }
-
-    @Override
-    public boolean isBound() {
-        return x.isBound();
-    }
-
-    @Override
-    public boolean contains(int v) {
-        return x.contains(-v);
-    }
-
-    @Override
-    public void remove(int v) throws InconsistencyException {
-        x.remove(-v);
-    }
-
-    @Override
-    public void assign(int v) throws InconsistencyException {
-        x.assign(-v);
-    }
-
-    @Override
-    public int removeBelow(int v) throws InconsistencyException {
-        return - x.removeAbove(-v);
-    }
-
-    @Override
-    public int removeAbove(int v) throws InconsistencyException {
-        return - x.removeBelow(-v);
-    }
-
 }
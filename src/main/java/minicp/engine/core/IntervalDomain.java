@@ -0,0 +1,338 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.reversible.Copyable;
+import minicp.reversible.ReversibleIntTuple;
+import minicp.reversible.Trail;
+import minicp.util.InconsistencyException;
+
+import java.util.Arrays;
+
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Domain for wide ranges, storing only its bounds
+ * as long as only the bounds are pruned.
+ * The first removal of a value strictly inside the bounds
+ * switches it to an exact domain over the current bounds,
+ * the switch is undone on backtrack.
+ */
+public class IntervalDomain extends IntDomain implements Copyable {
+
+    /**
+     * Minimum number of values for which IntVarImpl selects an interval domain
+     */
+    public static final int MIN_SIZE = 1 << 16;
+
+    private static final int MIN = 0;
+    private static final int MAX = 1;
+
+    private final Trail trail;
+    // the bounds of the interval, frozen to the range of exact once it exists
+    private final ReversibleIntTuple bounds;
+    // the exact domain the interval switched to, null while it is an interval
+    private IntDomain exact = null;
+    // sorted copy of the values given to removeAll and retainAll, allocated on demand
+    private int [] sorted = null;
+
+    /**
+     * @param trail
+     * @param min
+     * @param max >= min
+     */
+    public IntervalDomain(Trail trail, int min, int max) {
+        this.trail = trail;
+        bounds = new ReversibleIntTuple(trail, min, max);
+        trail.register(this);
+    }
+
+    /**
+     * Replaces the interval by an exact domain with the same values
+     */
+    private void switchToExact() {
+        int min = bounds.get(MIN);
+        int max = bounds.get(MAX);
+        trail.pushOnTrail(() -> exact = null);
+        if ((long) max - min + 1 <= BitSetDomain.MAX_SIZE) exact = new BitSetDomain(trail, min, max);
+        else exact = new SparseSetDomain(trail, min, max);
+    }
+
+    /**
+     * @return true once an interior value was removed
+     */
+    public boolean isExact() {
+        return exact != null;
+    }
+
+    public int getMin() {
+        return exact != null ? exact.getMin() : bounds.get(MIN);
+    }
+
+    public int getMax() {
+        return exact != null ? exact.getMax() : bounds.get(MAX);
+    }
+
+    public int getSize() {
+        if (exact != null) return exact.getSize();
+        return (int) Math.min(Integer.MAX_VALUE, (long) bounds.get(MAX) - bounds.get(MIN) + 1);
+    }
+
+    public boolean contains(int v) {
+        if (exact != null) return exact.contains(v);
+        return bounds.get(MIN) <= v && v <= bounds.get(MAX);
+    }
+
+    public boolean isBound() {
+        if (exact != null) return exact.isBound();
+        return bounds.get(MIN) == bounds.get(MAX);
+    }
+
+    public void remove(int v, DomainListener x) throws InconsistencyException {
+        if (exact != null) {
+            exact.remove(v, x);
+            return;
+        }
+        int min = bounds.get(MIN);
+        int max = bounds.get(MAX);
+        if (min == max) {
+            if (v == min) {
+                bounds.set(MAX, min - 1);
+                throw INCONSISTENCY;
+            }
+        }
+        else if (v == min) {
+            bounds.set(MIN, min + 1);
+            x.change(getSize());
+            x.removeBelow(getSize());
+            if (isBound()) x.bind();
+        }
+        else if (v == max) {
+            bounds.set(MAX, max - 1);
+            x.change(getSize());
+            x.removeAbove(getSize());
+            if (isBound()) x.bind();
+        }
+        else if (min < v && v < max) {
+            switchToExact();
+            exact.remove(v, x);
+        }
+    }
+
+    /**
+     * @return the sorted first count values of the array, in a reused array
+     */
+    private int [] sortedCopy(int [] values, int count) {
+        if (sorted == null || sorted.length < count) sorted = new int[Math.max(count, 16)];
+        System.arraycopy(values, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        return sorted;
+    }
+
+    /**
+     * Removes the values in one pass, whatever their order,
+     * as bounds if they form a prefix and a suffix of the interval
+     */
+    @Override
+    public int removeAll(int [] values, int count, DomainListener x) throws InconsistencyException {
+        if (exact != null) return exact.removeAll(values, count, x);
+        int oldMin = getMin();
+        int oldMax = getMax();
+        int oldSize = getSize();
+        int [] sorted = sortedCopy(values, count);
+        // the removed values form a prefix and a suffix of the domain
+        int min = oldMin;
+        for (int i = 0; i < count && min <= oldMax; i++) {
+            if (sorted[i] == min) min++;
+        }
+        int max = oldMax;
+        for (int i = count - 1; i >= 0 && max >= min; i--) {
+            if (sorted[i] == max) max--;
+        }
+        if (min > max) {
+            bounds.set(MAX, oldMin - 1);
+            throw INCONSISTENCY;
+        }
+        removeBelow(min, NO_EVENT);
+        removeAbove(max, NO_EVENT);
+        for (int i = 0; i < count; i++) {
+            if (min < sorted[i] && sorted[i] < max) {
+                if (exact == null) switchToExact();
+                exact.remove(sorted[i], NO_EVENT);
+            }
+        }
+        notifyChanges(oldMin, oldMax, oldSize, x);
+        return getSize();
+    }
+
+    /**
+     * Keeps the values in one pass,
+     * as bounds if they are consecutive over the interval
+     */
+    @Override
+    public int retainAll(int [] values, int count, DomainListener x) throws InconsistencyException {
+        if (exact != null) return exact.retainAll(values, count, x);
+        int oldMin = getMin();
+        int oldMax = getMax();
+        int oldSize = getSize();
+        int [] sorted = sortedCopy(values, count);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        long nKept = 0;
+        for (int i = 0; i < count; i++) {
+            int v = sorted[i];
+            if (oldMin <= v && v <= oldMax && (i == 0 || v != sorted[i - 1])) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+                nKept++;
+            }
+        }
+        if (nKept == 0) {
+            bounds.set(MAX, oldMin - 1);
+            throw INCONSISTENCY;
+        }
+        removeBelow(min, NO_EVENT);
+        removeAbove(max, NO_EVENT);
+        if (nKept != (long) max - min + 1) {
+            // remove the gaps between the consecutive kept values
+            switchToExact();
+            int last = min;
+            for (int i = 0; i < count; i++) {
+                int v = sorted[i];
+                if (v > last && v <= max) {
+                    for (int w = last + 1; w < v; w++) exact.remove(w, NO_EVENT);
+                    last = v;
+                }
+            }
+        }
+        notifyChanges(oldMin, oldMax, oldSize, x);
+        return getSize();
+    }
+
+    public void removeAllBut(int v, DomainListener x) throws InconsistencyException {
+        if (exact != null) {
+            exact.removeAllBut(v, x);
+            return;
+        }
+        int min = bounds.get(MIN);
+        int max = bounds.get(MAX);
+        if (contains(v)) {
+            if (min != max) {
+                bounds.set(MIN, v);
+                bounds.set(MAX, v);
+                x.bind();
+                x.change(1);
+                if (max != v) x.removeAbove(1);
+                if (min != v) x.removeBelow(1);
+            }
+        }
+        else {
+            bounds.set(MAX, min - 1);
+            throw INCONSISTENCY;
+        }
+    }
+
+    public int removeBelow(int value, DomainListener x) throws InconsistencyException {
+        if (exact != null) return exact.removeBelow(value, x);
+        if (bounds.get(MIN) < value) {
+            if (value > bounds.get(MAX)) {
+                bounds.set(MIN, bounds.get(MAX) + 1);
+                throw INCONSISTENCY;
+            }
+            bounds.set(MIN, value);
+            x.removeBelow(getSize());
+            x.change(getSize());
+            if (isBound()) x.bind();
+        }
+        return bounds.get(MIN);
+    }
+
+    public int removeAbove(int value, DomainListener x) throws InconsistencyException {
+        if (exact != null) return exact.removeAbove(value, x);
+        if (bounds.get(MAX) > value) {
+            if (value < bounds.get(MIN)) {
+                bounds.set(MAX, bounds.get(MIN) - 1);
+                throw INCONSISTENCY;
+            }
+            bounds.set(MAX, value);
+            x.removeAbove(getSize());
+            x.change(getSize());
+            if (isBound()) x.bind();
+        }
+        return bounds.get(MAX);
+    }
+
+    public int fillArray(int [] dest) {
+        if (exact != null) return exact.fillArray(dest);
+        int n = 0;
+        for (int v = bounds.get(MIN); v <= bounds.get(MAX); v++) {
+            dest[n++] = v;
+        }
+        return n;
+    }
+
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int [] dest) {
+        int min = bounds.get(MIN);
+        int max = bounds.get(MAX);
+        int n = 0;
+        if (exact != null) {
+            int switchSize = max - min + 1;
+            if (oldSize <= switchSize) return exact.fillDeltaArray(oldMin, oldMax, oldSize, dest);
+            // the old state is before the switch: the values removed
+            // from the interval, then the ones removed from the exact domain
+            n = exact.fillDeltaArray(min, max, switchSize, dest);
+        }
+        for (int v = oldMin; v < min; v++) {
+            dest[n++] = v;
+        }
+        for (int v = max + 1; v <= oldMax; v++) {
+            dest[n++] = v;
+        }
+        return n;
+    }
+
+    // the bounds are copied as a reversible object registered before the domain
+
+    @Override
+    public int stateSize() { return 0; }
+
+    @Override
+    public int save(long[] buffer, int offset) { return 0; }
+
+    @Override
+    public int restore(long[] buffer, int offset) { return 0; }
+
+    @Override
+    public int objectStateSize() { return 1; }
+
+    @Override
+    public int saveObjects(Object[] buffer, int offset) {
+        buffer[offset] = exact;
+        return 1;
+    }
+
+    @Override
+    public int restoreObjects(Object[] buffer, int offset) {
+        exact = (IntDomain) buffer[offset];
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        if (exact != null) return exact.toString();
+        return "[" + getMin() + ".." + getMax() + "]";
+    }
+}
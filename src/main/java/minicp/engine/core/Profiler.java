@@ -0,0 +1,157 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records for each constraint the number of calls to propagate(),
+ * the number of failures, the time spent and the number of values pruned.
+ * The values are pruned by a constraint if they are removed during its propagate().
+ * @see Solver#enableProfiling()
+ */
+public class Profiler {
+
+    /**
+     * The statistics of a constraint or of a class of constraints
+     */
+    public static class Stats {
+        private final String name;
+        private long calls;
+        private long failures;
+        private long time;
+        private long pruned;
+
+        private Stats(String name) {
+            this.name = name;
+        }
+
+        private void add(Stats s) {
+            calls += s.calls;
+            failures += s.failures;
+            time += s.time;
+            pruned += s.pruned;
+        }
+
+        public String getName() { return name; }
+
+        /**
+         * @return the number of calls to propagate()
+         */
+        public long getCalls() { return calls; }
+
+        /**
+         * @return the number of calls to propagate() that failed
+         */
+        public long getFailures() { return failures; }
+
+        /**
+         * @return the time spent in propagate() in nanoseconds
+         */
+        public long getTime() { return time; }
+
+        /**
+         * @return the number of values removed by propagate()
+         */
+        public long getPruned() { return pruned; }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s calls:%10d failures:%8d time(ms):%10.1f pruned:%10d",
+                    name, calls, failures, time / 1e6, pruned);
+        }
+    }
+
+    private final Map<Constraint, Stats> stats = new IdentityHashMap<>();
+    private Stats current;
+    private long start;
+
+    Profiler() {}
+
+    void start(Constraint c) {
+        current = stats.get(c);
+        if (current == null) {
+            current = new Stats(c.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(c)));
+            stats.put(c, current);
+        }
+        current.calls++;
+        start = System.nanoTime();
+    }
+
+    void stop(boolean failed) {
+        current.time += System.nanoTime() - start;
+        if (failed) current.failures++;
+        current = null;
+    }
+
+    void pruned(int n) {
+        if (current != null) current.pruned += n;
+    }
+
+    /**
+     * @return the statistics of each constraint propagated so far
+     */
+    public Collection<Stats> getConstraintStats() {
+        return stats.values();
+    }
+
+    /**
+     * @return the statistics summed over the constraints of each class
+     */
+    public Collection<Stats> getClassStats() {
+        Map<String, Stats> classStats = new LinkedHashMap<>();
+        for (Map.Entry<Constraint, Stats> e : stats.entrySet()) {
+            String name = e.getKey().getClass().getName();
+            classStats.computeIfAbsent(name, Stats::new).add(e.getValue());
+        }
+        return classStats.values();
+    }
+
+    /**
+     * Forgets the statistics recorded so far
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * @param nConstraints the maximum number of constraints reported
+     * @return the statistics per class, then of the nConstraints most time consuming constraints
+     */
+    public String report(int nConstraints) {
+        StringBuilder b = new StringBuilder("per class:\n");
+        List<Stats> classes = new ArrayList<>(getClassStats());
+        classes.sort((s1, s2) -> Long.compare(s2.time, s1.time));
+        for (Stats s : classes) b.append(s).append('\n');
+        b.append("per constraint:\n");
+        List<Stats> constraints = new ArrayList<>(getConstraintStats());
+        constraints.sort((s1, s2) -> Long.compare(s2.time, s1.time));
+        for (Stats s : constraints.subList(0, Math.min(nConstraints, constraints.size()))) {
+            b.append(s).append('\n');
+        }
+        return b.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report(10);
+    }
+}
@@ -18,14 +18,39 @@ package minicp.engine.core;
 import minicp.reversible.Trail;
 import minicp.util.InconsistencyException;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
 import java.util.Vector;
 
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
 public class Solver {
 
-    private Trail trail = new Trail();
-    private Stack<Constraint> propagationQueue = new Stack<>();
+    private final Trail trail;
+    // one queue per priority, the lowest priority is emptied first
+    private final ArrayDeque<Constraint>[] propagationQueue;
+    private final long[] nPropagations = new long[Constraint.NUMBER_OF_PRIORITIES];
+    // null when profiling is disabled
+    Profiler profiler = null;
     private Vector<IntVar>  vars = new Vector<>(2);
+
+    public Solver() {
+        this(new Trail());
+    }
+
+    /**
+     * Creates a solver using a specific state manager
+     * @param trail the state manager, e.g. a {@link minicp.reversible.Copier}
+     *              to restore the state by copy instead of trailing
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    public Solver(Trail trail) {
+        this.trail = trail;
+        propagationQueue = new ArrayDeque[Constraint.NUMBER_OF_PRIORITIES];
+        for (int i = 0; i < propagationQueue.length; i++) {
+            propagationQueue[i] = new ArrayDeque<>();
+        }
+    }
+
     public void registerVar(IntVar x) {
         vars.add(x);
     }
@@ -39,23 +64,96 @@ public class Solver {
     public void schedule(Constraint c) {
         if (!c.scheduled && c.isActive()) {
             c.scheduled = true;
-            propagationQueue.add(c);
+            propagationQueue[c.getPriority()].add(c);
         }
     }
 
+    /**
+     * @return the next constraint to propagate, null if none is scheduled
+     */
+    private Constraint nextScheduled() {
+        for (ArrayDeque<Constraint> queue : propagationQueue) {
+            if (!queue.isEmpty()) return queue.poll();
+        }
+        return null;
+    }
+
     public void fixPoint() throws InconsistencyException {
         boolean failed = false;
-        while (!propagationQueue.isEmpty()) {
-            Constraint c = propagationQueue.pop();
+        Constraint c;
+        while ((c = nextScheduled()) != null) {
             c.scheduled = false;
             if (!failed) {
-                try { c.propagate(); }
+                nPropagations[c.getPriority()]++;
+                if (profiler != null) profiler.start(c);
+                try {
+                    c.propagate();
+                    c.updateDeltas();
+                }
                 catch (InconsistencyException e) {
                     failed = true;
                 }
+                catch (RuntimeException e) {
+                    // e.g. a TrailLimitException: leave the solver ready for the next fix point
+                    if (profiler != null) profiler.stop(true);
+                    clearQueues();
+                    throw e;
+                }
+                if (profiler != null) profiler.stop(failed);
             }
         }
-        if (failed) throw new InconsistencyException();
+        if (failed) throw INCONSISTENCY;
+    }
+
+    /**
+     * Unschedules all the constraints without propagating them
+     */
+    private void clearQueues() {
+        Constraint c;
+        while ((c = nextScheduled()) != null) {
+            c.scheduled = false;
+        }
+    }
+
+    /**
+     * Starts recording statistics on the propagation of each constraint,
+     * this slows down the propagation
+     * @return the profiler recording the statistics
+     */
+    public Profiler enableProfiling() {
+        if (profiler == null) profiler = new Profiler();
+        return profiler;
+    }
+
+    /**
+     * Stops recording statistics on the propagation
+     */
+    public void disableProfiling() {
+        profiler = null;
+    }
+
+    /**
+     * @return the profiler, null if profiling is disabled
+     */
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * @param priority one of the priorities defined in {@link Constraint}
+     * @return the number of calls to propagate() of the constraints with this priority
+     */
+    public long getNumberOfPropagations(int priority) {
+        return nPropagations[priority];
+    }
+
+    /**
+     * @return the number of calls to propagate() of all the constraints
+     */
+    public long getNumberOfPropagations() {
+        long n = 0;
+        for (long p : nPropagations) n += p;
+        return n;
     }
 
     public void post(Constraint c) throws InconsistencyException {
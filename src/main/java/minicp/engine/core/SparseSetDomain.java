@@ -82,6 +82,22 @@ public class SparseSetDomain extends IntDomain {
         }
     }
 
+    @Override
+    public int retainAll(int [] values, int count, DomainListener x) throws InconsistencyException {
+        int oldMin = getMin();
+        int oldMax = getMax();
+        int oldSize = getSize();
+        int marked = 0;
+        for (int i = 0; i < count; i++) {
+            long v = (long) values[i] - offset;
+            if (v >= 0 && v <= Integer.MAX_VALUE) marked = domain.mark((int) v, marked);
+        }
+        domain.retainMarked(marked);
+        if (marked == 0) throw INCONSISTENCY;
+        notifyChanges(oldMin, oldMax, oldSize, x);
+        return marked;
+    }
+
     public int removeBelow(int value, DomainListener x) throws InconsistencyException {
         if (domain.getMin() + offset < value) {
             domain.removeBelow(value - offset);
@@ -103,4 +119,20 @@ public class SparseSetDomain extends IntDomain {
         if (domain.getSize() == 0) throw INCONSISTENCY;
         else return domain.getMax() + offset;
     }
+
+    public int fillArray(int [] dest) {
+        int n = domain.fillArray(dest);
+        for (int i = 0; i < n; i++) {
+            dest[i] += offset;
+        }
+        return n;
+    }
+
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int [] dest) {
+        int n = domain.fillDeltaArray(oldSize, dest);
+        for (int i = 0; i < n; i++) {
+            dest[i] += offset;
+        }
+        return n;
+    }
 }
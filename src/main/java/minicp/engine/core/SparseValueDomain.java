@@ -0,0 +1,172 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.reversible.ReversibleSparseSet;
+import minicp.reversible.Trail;
+import minicp.util.InconsistencyException;
+
+import java.util.Arrays;
+
+import static minicp.util.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Domain storing only a given set of values, whatever their range.
+ * The values are sorted in an array and the domain is
+ * a sparse set over their indexes, a value is found by binary search.
+ */
+public class SparseValueDomain extends IntDomain {
+
+    private final int[] values;
+    private final ReversibleSparseSet domain;
+
+    /**
+     * @param trail
+     * @param values at least one value, duplicates are ignored
+     */
+    public SparseValueDomain(Trail trail, int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[i] != sorted[n - 1]) sorted[n++] = sorted[i];
+        }
+        this.values = Arrays.copyOf(sorted, n);
+        domain = new ReversibleSparseSet(trail, n);
+    }
+
+    /**
+     * @return the index of v, -1 if v is not an initial value
+     */
+    private int indexOf(int v) {
+        int i = Arrays.binarySearch(values, v);
+        return i < 0 ? -1 : i;
+    }
+
+    /**
+     * @return the index of the smallest initial value >= v
+     */
+    private int ceilIndex(int v) {
+        int i = Arrays.binarySearch(values, v);
+        return i < 0 ? -i - 1 : i;
+    }
+
+    public int getMin() {
+        return values[domain.getMin()];
+    }
+
+    public int getMax() {
+        return values[domain.getMax()];
+    }
+
+    public int getSize() {
+        return domain.getSize();
+    }
+
+    public boolean contains(int v) {
+        int i = indexOf(v);
+        return i >= 0 && domain.contains(i);
+    }
+
+    public boolean isBound() {
+        return domain.getSize() == 1;
+    }
+
+    public void remove(int v, DomainListener x) throws InconsistencyException {
+        if (contains(v)) {
+            boolean maxChanged = getMax() == v;
+            boolean minChanged = getMin() == v;
+            domain.remove(indexOf(v));
+            if (domain.getSize() == 0) throw INCONSISTENCY;
+            x.change(domain.getSize());
+            if (maxChanged) x.removeAbove(domain.getSize());
+            if (minChanged) x.removeBelow(domain.getSize());
+            if (domain.getSize() == 1) x.bind();
+        }
+    }
+
+    public void removeAllBut(int v, DomainListener x) throws InconsistencyException {
+        if (contains(v)) {
+            if (domain.getSize() != 1) {
+                boolean maxChanged = getMax() != v;
+                boolean minChanged = getMin() != v;
+                domain.removeAllBut(indexOf(v));
+                x.bind();
+                x.change(domain.getSize());
+                if (maxChanged) x.removeAbove(domain.getSize());
+                if (minChanged) x.removeBelow(domain.getSize());
+            }
+        }
+        else {
+            domain.removeAll();
+            throw INCONSISTENCY;
+        }
+    }
+
+    @Override
+    public int retainAll(int [] values, int count, DomainListener x) throws InconsistencyException {
+        int oldMin = getMin();
+        int oldMax = getMax();
+        int oldSize = getSize();
+        int marked = 0;
+        for (int i = 0; i < count; i++) {
+            int index = indexOf(values[i]);
+            if (index >= 0) marked = domain.mark(index, marked);
+        }
+        domain.retainMarked(marked);
+        if (marked == 0) throw INCONSISTENCY;
+        notifyChanges(oldMin, oldMax, oldSize, x);
+        return marked;
+    }
+
+    public int removeBelow(int value, DomainListener x) throws InconsistencyException {
+        if (getMin() < value) {
+            domain.removeBelow(ceilIndex(value));
+            if (domain.getSize() == 0) throw INCONSISTENCY;
+            x.removeBelow(domain.getSize());
+            x.change(domain.getSize());
+            if (domain.getSize() == 1) x.bind();
+        }
+        return getMin();
+    }
+
+    public int removeAbove(int value, DomainListener x) throws InconsistencyException {
+        if (getMax() > value) {
+            domain.removeAbove(ceilIndex(value + 1) - 1);
+            if (domain.getSize() == 0) throw INCONSISTENCY;
+            x.removeAbove(domain.getSize());
+            x.change(domain.getSize());
+            if (domain.getSize() == 1) x.bind();
+        }
+        return getMax();
+    }
+
+    public int fillArray(int [] dest) {
+        int n = domain.fillArray(dest);
+        for (int i = 0; i < n; i++) {
+            dest[i] = values[dest[i]];
+        }
+        return n;
+    }
+
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int [] dest) {
+        int n = domain.fillDeltaArray(oldSize, dest);
+        for (int i = 0; i < n; i++) {
+            dest[i] = values[dest[i]];
+        }
+        return n;
+    }
+}
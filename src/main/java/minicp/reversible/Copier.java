@@ -0,0 +1,190 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import java.util.Arrays;
+
+/**
+ * State manager that restores the reversible objects by copying
+ * rather than by trailing their changes.
+ * On push() the state of every registered {@link Copyable} object is
+ * copied in a buffer, and pop() copies it back in O(state size)
+ * whatever the number of changes done in between.
+ * Objects that are not {@link Copyable} are still trailed.
+ *
+ * Objects registered after a push() are forgotten by the matching pop(),
+ * they are not restored anymore afterwards.
+ *
+ * A saved state can be restored from any node, not only from its descendants:
+ * the Copyable objects save all the state that is not derived from
+ * their reversible fields, e.g. the order of the values of a sparse set.
+ */
+public class Copier extends Trail {
+
+    private Copyable[] registered = new Copyable[256];
+    private int nRegistered = 0;
+
+    private long[] buffer = new long[1024];
+    private int bufferSize = 0;
+    private Object[] objectBuffer = new Object[256];
+    private int objectBufferSize = 0;
+
+    // for each level, the number of registered objects and the buffer offsets
+    private int[] levelRegistered = new int[64];
+    private int[] levelOffset = new int[64];
+    private int[] levelObjectOffset = new int[64];
+
+    /**
+     * A copy of the state of the registered objects
+     * @see #saveState()
+     */
+    public static class Snapshot {
+        private final long[] state;
+        private final Object[] objects;
+        private final int nRegistered;
+
+        private Snapshot(long[] state, Object[] objects, int nRegistered) {
+            this.state = state;
+            this.objects = objects;
+            this.nRegistered = nRegistered;
+        }
+    }
+
+    public Copier() {}
+
+    @Override
+    public boolean register(Copyable object) {
+        if (nRegistered == registered.length) registered = Arrays.copyOf(registered, nRegistered * 2);
+        registered[nRegistered++] = object;
+        return true;
+    }
+
+    @Override
+    public void pushOnTrail(Trailable owner, long value) {
+        // copied on push(), nothing to trail
+        if (!(owner instanceof Copyable)) super.pushOnTrail(owner, value);
+    }
+
+    /**
+     * @return the number of registered objects
+     */
+    public int getNumberOfRegistered() {
+        return nRegistered;
+    }
+
+    private int stateSize() {
+        int s = 0;
+        for (int i = 0; i < nRegistered; i++) {
+            s += registered[i].stateSize();
+        }
+        return s;
+    }
+
+    private int objectStateSize() {
+        int s = 0;
+        for (int i = 0; i < nRegistered; i++) {
+            s += registered[i].objectStateSize();
+        }
+        return s;
+    }
+
+    private int saveTo(long[] dest, int offset) {
+        int o = offset;
+        for (int i = 0; i < nRegistered; i++) {
+            o += registered[i].save(dest, o);
+        }
+        return o;
+    }
+
+    private int saveObjectsTo(Object[] dest, int offset) {
+        int o = offset;
+        for (int i = 0; i < nRegistered; i++) {
+            o += registered[i].saveObjects(dest, o);
+        }
+        return o;
+    }
+
+    private void restoreFrom(long[] src, Object[] objects, int offset, int objectOffset, int n) {
+        int o = offset;
+        int oo = objectOffset;
+        for (int i = 0; i < n; i++) {
+            o += registered[i].restore(src, o);
+            oo += registered[i].restoreObjects(objects, oo);
+        }
+    }
+
+    @Override
+    public void push() {
+        int level = getLevel() + 1;
+        if (level == levelOffset.length) {
+            levelOffset = Arrays.copyOf(levelOffset, level * 2);
+            levelObjectOffset = Arrays.copyOf(levelObjectOffset, level * 2);
+            levelRegistered = Arrays.copyOf(levelRegistered, level * 2);
+        }
+        int size = stateSize();
+        if (bufferSize + size > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, bufferSize + size));
+        }
+        int objectSize = objectStateSize();
+        if (objectBufferSize + objectSize > objectBuffer.length) {
+            objectBuffer = Arrays.copyOf(objectBuffer, Math.max(objectBuffer.length * 2, objectBufferSize + objectSize));
+        }
+        levelOffset[level] = bufferSize;
+        levelObjectOffset[level] = objectBufferSize;
+        levelRegistered[level] = nRegistered;
+        bufferSize = saveTo(buffer, bufferSize);
+        objectBufferSize = saveObjectsTo(objectBuffer, objectBufferSize);
+        super.push();
+    }
+
+    @Override
+    public void pop() {
+        int level = getLevel();
+        super.pop();
+        Arrays.fill(registered, levelRegistered[level], nRegistered, null);
+        nRegistered = levelRegistered[level];
+        bufferSize = levelOffset[level];
+        restoreFrom(buffer, objectBuffer, bufferSize, levelObjectOffset[level], nRegistered);
+        // release the references saved at this level
+        Arrays.fill(objectBuffer, levelObjectOffset[level], objectBufferSize, null);
+        objectBufferSize = levelObjectOffset[level];
+    }
+
+    /**
+     * Copies the state of all the registered objects.
+     * This state can be restored at any time with restoreState(),
+     * whatever the nodes visited in between.
+     * @return a copy of the current state
+     */
+    public Snapshot saveState() {
+        long[] state = new long[stateSize()];
+        saveTo(state, 0);
+        Object[] objects = new Object[objectStateSize()];
+        saveObjectsTo(objects, 0);
+        return new Snapshot(state, objects, nRegistered);
+    }
+
+    /**
+     * Restores the state of the objects registered at the time
+     * of the snapshot, the level is not modified.
+     * The snapshot may come from any node, e.g. a sibling of the current one.
+     * @param snapshot a state obtained with saveState() on this copier
+     */
+    public void restoreState(Snapshot snapshot) {
+        assert(snapshot.nRegistered <= nRegistered);
+        restoreFrom(snapshot.state, snapshot.objects, 0, 0, snapshot.nRegistered);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+/**
+ * A Copyable is a reversible object whose state can be
+ * saved into and restored from a buffer of longs by a {@link Copier}.
+ * It must be registered with @see {@link Trail#register(Copyable)}
+ */
+public interface Copyable {
+
+    /**
+     * @return the number of slots needed to save the current state
+     */
+    public int stateSize();
+
+    /**
+     * Saves the current state from buffer[offset]
+     * @param buffer an array with at least stateSize() free slots from offset
+     * @param offset
+     * @return the number of slots written
+     */
+    public int save(long[] buffer, int offset);
+
+    /**
+     * Restores a state saved with save(buffer, offset)
+     * @param buffer
+     * @param offset
+     * @return the number of slots read
+     */
+    public int restore(long[] buffer, int offset);
+
+    /**
+     * @return the number of object slots needed to save
+     *         the references of the current state, none by default
+     */
+    default int objectStateSize() {
+        return 0;
+    }
+
+    /**
+     * Saves the references of the current state from buffer[offset]
+     * @param buffer an array with at least objectStateSize() free slots from offset
+     * @param offset
+     * @return the number of slots written
+     */
+    default int saveObjects(Object[] buffer, int offset) {
+        return 0;
+    }
+
+    /**
+     * Restores references saved with saveObjects(buffer, offset)
+     * @param buffer
+     * @param offset
+     * @return the number of slots read
+     */
+    default int restoreObjects(Object[] buffer, int offset) {
+        return 0;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Trail storing the values of its entries outside of the java heap,
+ * in direct buffers of fixed size.
+ * The trail grows by adding buffers, the values already stored
+ * are never copied and the garbage collector never scans them.
+ *
+ * The owners of the entries are java references and remain on the heap.
+ */
+public class OffHeapTrail extends Trail {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 16;
+
+    private final int shift;
+    private final int mask;
+    private ByteBuffer[] segments;
+    private int nSegments;
+
+    public OffHeapTrail() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize the number of values per direct buffer,
+     *                    rounded up to a power of two
+     */
+    public OffHeapTrail(int segmentSize) {
+        super(false);
+        int s = Integer.highestOneBit(Math.max(1, segmentSize - 1)) << 1;
+        shift = Integer.numberOfTrailingZeros(s);
+        mask = s - 1;
+        segments = new ByteBuffer[8];
+        nSegments = 0;
+        growValues(INITIAL_CAPACITY);
+    }
+
+    @Override
+    protected void storeValue(int i, long value) {
+        segments[i >>> shift].putLong((i & mask) << 3, value);
+    }
+
+    @Override
+    protected long loadValue(int i) {
+        return segments[i >>> shift].getLong((i & mask) << 3);
+    }
+
+    @Override
+    protected void growValues(int capacity) {
+        int needed = ((capacity - 1) >>> shift) + 1;
+        if (needed > segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(needed, segments.length * 2));
+        }
+        while (nSegments < needed) {
+            segments[nSegments++] = ByteBuffer.allocateDirect((mask + 1) << 3).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * @return the number of bytes allocated outside of the heap
+     */
+    public long getOffHeapSize() {
+        return ((long) nSegments * (mask + 1)) << 3;
+    }
+}
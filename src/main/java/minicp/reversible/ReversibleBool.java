@@ -16,21 +16,7 @@
 package minicp.reversible;
 
 
-public class ReversibleBool implements TrailEntry {
-
-    final TrailEntry restoreTrue = new TrailEntry() {
-        @Override
-        public void restore() {
-            v = true;
-        }
-    };
-
-    final TrailEntry restoreFalse = new TrailEntry() {
-        @Override
-        public void restore() {
-            v = false;
-        }
-    };
+public class ReversibleBool implements Trailable, Copyable {
 
     private boolean v;
     private Trail context;
@@ -40,14 +26,14 @@ public class ReversibleBool implements TrailEntry {
         this.context = context;
         v = initial;
         lastMagic = context.magic;
+        context.register(this);
     }
 
     private void trail() {
         long contextMagic = context.magic;
         if (lastMagic != contextMagic) {
+            context.pushOnTrail(this, v ? 1 : 0);
             lastMagic = contextMagic;
-            if (v) context.pushOnTrail(restoreTrue);
-            else context.pushOnTrail(restoreFalse);
         }
     }
 
@@ -60,7 +46,19 @@ public class ReversibleBool implements TrailEntry {
 
     public boolean getValue() { return this.v; }
 
-    public void restore() {
-        v = !v;
+    public void restore(long value) {
+        v = value != 0;
+    }
+
+    public int stateSize() { return 1; }
+
+    public int save(long[] buffer, int offset) {
+        buffer[offset] = v ? 1 : 0;
+        return 1;
+    }
+
+    public int restore(long[] buffer, int offset) {
+        v = buffer[offset] != 0;
+        return 1;
     }
 }
@@ -16,29 +16,23 @@
 package minicp.reversible;
 
 
-public class ReversibleInt implements RevInt {
-    class TrailEntryInt implements TrailEntry {
-        private final int v;
-        public TrailEntryInt(int v) {
-            this.v = v;
-        }
-        public void restore()       { ReversibleInt.this.v = v;}
-    }
+public class ReversibleInt implements RevInt, Trailable, Copyable {
     private Trail trail;
     private int v;
-    private Long lastMagic = -1L;
+    private long lastMagic = -1L;
 
     public ReversibleInt(Trail trail, int initial) {
         this.trail = trail;
         v = initial;
         lastMagic = trail.magic;
+        trail.register(this);
     }
 
     private void trail() {
         long trailMagic = trail.magic;
         if (lastMagic != trailMagic) {
+            trail.pushOnTrail(this, v);
             lastMagic = trailMagic;
-            trail.pushOnTrail(new TrailEntryInt(v));
         }
     }
 
@@ -54,6 +48,20 @@ public class ReversibleInt implements RevInt {
     public int decrement() { return setValue(getValue()-1);}
     public int getValue()  { return this.v; }
 
+    public void restore(long value) { this.v = (int) value; }
+
+    public int stateSize() { return 1; }
+
+    public int save(long[] buffer, int offset) {
+        buffer[offset] = v;
+        return 1;
+    }
+
+    public int restore(long[] buffer, int offset) {
+        v = (int) buffer[offset];
+        return 1;
+    }
+
     @Override
     public String toString() {
         return ""+v;
@@ -0,0 +1,152 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import java.util.Arrays;
+
+/**
+ * A list of ints whose size and elements are reversible.
+ * Elements are appended at the end of the list
+ * and removed on backtrack,
+ * a modified element is trailed at most once per level
+ * as an (index, old value) pair, without allocating any object.
+ */
+public class ReversibleIntList implements Trailable, Copyable {
+
+    private final Trail trail;
+    private final ReversibleInt size;
+    private int[] values;
+    private long[] lastMagic;
+
+    public ReversibleIntList(Trail trail) {
+        this(trail, 8);
+    }
+
+    /**
+     * @param trail
+     * @param capacity the expected size of the list
+     */
+    public ReversibleIntList(Trail trail, int capacity) {
+        this.trail = trail;
+        size = new ReversibleInt(trail, 0);
+        values = new int[Math.max(1, capacity)];
+        lastMagic = new long[values.length];
+        trail.register(this);
+    }
+
+    /**
+     * @return the number of elements in the list
+     */
+    public int size() {
+        return size.getValue();
+    }
+
+    public boolean isEmpty() {
+        return size.getValue() == 0;
+    }
+
+    /**
+     * Appends v at the end of the list
+     * @param v
+     * @return the index of v in the list
+     */
+    public int add(int v) {
+        int s = size.getValue();
+        if (s == values.length) {
+            values = Arrays.copyOf(values, s * 2);
+            lastMagic = Arrays.copyOf(lastMagic, s * 2);
+        }
+        values[s] = v;
+        // the slot is discarded on backtrack, it does not need to be trailed
+        lastMagic[s] = trail.magic;
+        size.setValue(s + 1);
+        return s;
+    }
+
+    /**
+     * @param i with 0 <= i < size()
+     * @return the i_th element
+     */
+    public int get(int i) {
+        assert(i < size.getValue());
+        return values[i];
+    }
+
+    /**
+     * Sets the i_th element of the list
+     * @param i with 0 <= i < size()
+     * @param v
+     * @return v
+     */
+    public int set(int i, int v) {
+        assert(i < size.getValue());
+        int old = values[i];
+        if (v != old) {
+            long magic = trail.magic;
+            if (lastMagic[i] != magic) {
+                trail.pushOnTrail(this, ((long) i << 32) | (old & 0xFFFFFFFFL));
+                lastMagic[i] = magic;
+            }
+            values[i] = v;
+        }
+        return v;
+    }
+
+    /**
+     * Sets the first values of dest to the elements of the list
+     * @param dest an array large enough dest.length >= size()
+     * @return the size of the list
+     */
+    public int fillArray(int[] dest) {
+        int s = size.getValue();
+        System.arraycopy(values, 0, dest, 0, s);
+        return s;
+    }
+
+    @Override
+    public void restore(long value) {
+        values[(int) (value >>> 32)] = (int) value;
+    }
+
+    @Override
+    public int stateSize() {
+        return size.getValue() + 1;
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        int s = size.getValue();
+        buffer[offset] = s;
+        for (int i = 0; i < s; i++) {
+            buffer[offset + 1 + i] = values[i];
+        }
+        return s + 1;
+    }
+
+    @Override
+    public int restore(long[] buffer, int offset) {
+        int s = (int) buffer[offset];
+        for (int i = 0; i < s; i++) {
+            values[i] = (int) buffer[offset + 1 + i];
+        }
+        return s + 1;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(values, size.getValue()));
+    }
+}
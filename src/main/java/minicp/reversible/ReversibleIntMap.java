@@ -0,0 +1,200 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import java.util.Arrays;
+
+/**
+ * A reversible map from int keys to int values.
+ * The entries added are removed on backtrack and
+ * the values modified are restored, keys and values are never boxed.
+ *
+ * The entries are stored in their insertion order,
+ * the i_th one having the key keyAt(i) and the value valueAt(i).
+ * A hash table with open addressing gives the index of the entry of a key.
+ * Since backtracking removes the last entries, a slot of the table
+ * referring to an index >= size() is free.
+ * With a {@link Copier} the keys are copied and the table is rebuilt
+ * on restore, such that any saved state can be restored.
+ */
+public class ReversibleIntMap implements Copyable {
+
+    private int[] keys;
+    private final ReversibleIntList values;
+    // table[slot] = index of the entry + 1, 0 for an empty slot
+    private int[] table;
+    private int mask;
+    private int nUsedSlots = 0;
+
+    public ReversibleIntMap(Trail trail) {
+        this(trail, 8);
+    }
+
+    /**
+     * @param trail
+     * @param capacity the expected number of entries
+     */
+    public ReversibleIntMap(Trail trail, int capacity) {
+        capacity = Math.max(1, capacity);
+        keys = new int[capacity];
+        values = new ReversibleIntList(trail, capacity);
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        table = new int[tableSize];
+        mask = tableSize - 1;
+        trail.register(this);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param key
+     * @return the index of the entry of key, -1 if none
+     */
+    private int indexOf(int key) {
+        int s = values.size();
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int e = table[slot] - 1;
+            if (e < 0 || e >= s) return -1;
+            if (keys[e] == key) return e;
+        }
+    }
+
+    /**
+     * @return the number of entries in the map
+     */
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key
+     * @param defaultValue
+     * @return the value associated to key, defaultValue if none
+     */
+    public int get(int key, int defaultValue) {
+        int e = indexOf(key);
+        return e < 0 ? defaultValue : values.get(e);
+    }
+
+    /**
+     * Associates value to key
+     * @param key
+     * @param value
+     */
+    public void put(int key, int value) {
+        int e = indexOf(key);
+        if (e >= 0) {
+            values.set(e, value);
+            return;
+        }
+        int s = values.size();
+        if ((nUsedSlots + 1) * 2 > table.length) rehash(s + 1);
+        if (s == keys.length) keys = Arrays.copyOf(keys, s * 2);
+        keys[s] = key;
+        values.add(value);
+        insert(key, s);
+    }
+
+    private void insert(int key, int e) {
+        int slot = hash(key) & mask;
+        while (table[slot] != 0 && table[slot] - 1 < e) {
+            slot = (slot + 1) & mask;
+        }
+        if (table[slot] == 0) nUsedSlots++;
+        table[slot] = e + 1;
+    }
+
+    private void rehash(int nEntries) {
+        int tableSize = table.length;
+        while (nEntries * 2 > tableSize) tableSize *= 2;
+        table = new int[tableSize];
+        mask = tableSize - 1;
+        nUsedSlots = 0;
+        for (int e = 0; e < values.size(); e++) {
+            insert(keys[e], e);
+        }
+    }
+
+    /**
+     * @param i with 0 <= i < size()
+     * @return the key of the i_th entry in insertion order
+     */
+    public int keyAt(int i) {
+        assert(i < values.size());
+        return keys[i];
+    }
+
+    /**
+     * @param i with 0 <= i < size()
+     * @return the value of the i_th entry in insertion order
+     */
+    public int valueAt(int i) {
+        return values.get(i);
+    }
+
+    @Override
+    public int stateSize() {
+        return values.size() + 1;
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        int s = values.size();
+        buffer[offset] = s;
+        for (int i = 0; i < s; i++) {
+            buffer[offset + 1 + i] = keys[i];
+        }
+        return s + 1;
+    }
+
+    @Override
+    public int restore(long[] buffer, int offset) {
+        // the values, registered before the map, are already restored
+        int s = (int) buffer[offset];
+        if (s > keys.length) keys = Arrays.copyOf(keys, Math.max(s, keys.length * 2));
+        for (int i = 0; i < s; i++) {
+            keys[i] = (int) buffer[offset + 1 + i];
+        }
+        Arrays.fill(table, 0);
+        nUsedSlots = 0;
+        if (s * 2 > table.length) rehash(s);
+        else for (int e = 0; e < s; e++) insert(keys[e], e);
+        return s + 1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append("{");
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) b.append(',');
+            b.append(keys[i]).append('=').append(values.get(i));
+        }
+        b.append("}");
+        return b.toString();
+    }
+}
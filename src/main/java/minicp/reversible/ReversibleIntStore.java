@@ -0,0 +1,145 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import java.util.Arrays;
+
+/**
+ * A store of many reversible ints kept in a single array.
+ * Each int is accessed through the handle returned
+ * when it is created, e.g.
+ * <pre>
+ * int h = store.makeInt(5);
+ * store.setValue(h, 6);
+ * </pre>
+ * An int is trailed at most once per level
+ * as an (handle, old value) pair without allocating any object.
+ */
+public class ReversibleIntStore implements Trailable, Copyable {
+
+    private final Trail trail;
+    private int[] values;
+    private long[] lastMagic;
+    private int size = 0;
+
+    public ReversibleIntStore(Trail trail) {
+        this(trail, 16);
+    }
+
+    /**
+     * @param trail
+     * @param capacity the expected number of ints in the store
+     */
+    public ReversibleIntStore(Trail trail, int capacity) {
+        this.trail = trail;
+        values = new int[Math.max(1, capacity)];
+        lastMagic = new long[values.length];
+        trail.register(this);
+    }
+
+    /**
+     * Creates a new reversible int in the store
+     * @param initial the initial value
+     * @return the handle of the int
+     */
+    public int makeInt(int initial) {
+        return makeInts(1, initial);
+    }
+
+    /**
+     * Creates n new reversible ints in the store,
+     * their handles are h, h+1, ..., h+n-1
+     * @param n
+     * @param initial the initial value of the n ints
+     * @return the handle h of the first int
+     */
+    public int makeInts(int n, int initial) {
+        if (size + n > values.length) {
+            int capacity = Math.max(values.length * 2, size + n);
+            values = Arrays.copyOf(values, capacity);
+            lastMagic = Arrays.copyOf(lastMagic, capacity);
+        }
+        int h = size;
+        for (int i = h; i < h + n; i++) {
+            values[i] = initial;
+            // trailed on the first setValue, even at the level of creation
+            lastMagic[i] = -1L;
+        }
+        size += n;
+        return h;
+    }
+
+    /**
+     * @return the number of ints in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getValue(int handle) {
+        return values[handle];
+    }
+
+    public int setValue(int handle, int v) {
+        int old = values[handle];
+        if (v != old) {
+            long magic = trail.magic;
+            if (lastMagic[handle] != magic) {
+                trail.pushOnTrail(this, ((long) handle << 32) | (old & 0xFFFFFFFFL));
+                lastMagic[handle] = magic;
+            }
+            values[handle] = v;
+        }
+        return v;
+    }
+
+    public int increment(int handle) { return setValue(handle, values[handle] + 1); }
+
+    public int decrement(int handle) { return setValue(handle, values[handle] - 1); }
+
+    @Override
+    public void restore(long value) {
+        values[(int) (value >>> 32)] = (int) value;
+    }
+
+    @Override
+    public int stateSize() {
+        return size + 1;
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        buffer[offset] = size;
+        for (int i = 0; i < size; i++) {
+            buffer[offset + 1 + i] = values[i];
+        }
+        return size + 1;
+    }
+
+    @Override
+    public int restore(long[] buffer, int offset) {
+        int n = (int) buffer[offset];
+        for (int i = 0; i < n; i++) {
+            values[i] = (int) buffer[offset + 1 + i];
+        }
+        return n + 1;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(values, size));
+    }
+}
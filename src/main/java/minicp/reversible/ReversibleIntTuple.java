@@ -0,0 +1,121 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import java.util.Arrays;
+
+/**
+ * A fixed number of reversible ints saved together:
+ * the first modification at a given level saves all of them
+ * as a single trail entry, whatever the number of ints modified.
+ * The saved values are stacked in an int array,
+ * such that no object is allocated.
+ * With a {@link Copier} nothing is saved, the tuple is copied on push().
+ */
+public class ReversibleIntTuple implements Trailable, Copyable {
+
+    private final Trail trail;
+    private final boolean copied;
+    private final int[] values;
+    private long lastMagic;
+    private int[] saved;
+    private int top = 0;
+
+    /**
+     * @param trail
+     * @param initial the initial values, their number is the arity of the tuple
+     */
+    public ReversibleIntTuple(Trail trail, int... initial) {
+        this.trail = trail;
+        this.values = initial.clone();
+        this.saved = new int[values.length * 4];
+        lastMagic = trail.magic;
+        copied = trail.register(this);
+    }
+
+    private void trail() {
+        long trailMagic = trail.magic;
+        if (lastMagic != trailMagic && !copied) {
+            int k = values.length;
+            if (top + k > saved.length) saved = Arrays.copyOf(saved, saved.length * 2);
+            System.arraycopy(values, 0, saved, top, k);
+            trail.pushOnTrail(this, top);
+            lastMagic = trailMagic;
+            top += k;
+        }
+    }
+
+    /**
+     * @return the number of ints in the tuple
+     */
+    public int arity() {
+        return values.length;
+    }
+
+    /**
+     * @param i with 0 <= i < arity()
+     * @return the i_th value
+     */
+    public int get(int i) {
+        return values[i];
+    }
+
+    /**
+     * Sets the i_th value
+     * @param i with 0 <= i < arity()
+     * @param v
+     * @return v
+     */
+    public int set(int i, int v) {
+        if (v != values[i]) {
+            trail();
+            values[i] = v;
+        }
+        return v;
+    }
+
+    @Override
+    public void restore(long value) {
+        top = (int) value;
+        System.arraycopy(saved, top, values, 0, values.length);
+    }
+
+    @Override
+    public int stateSize() {
+        return values.length;
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        for (int i = 0; i < values.length; i++) {
+            buffer[offset + i] = values[i];
+        }
+        return values.length;
+    }
+
+    @Override
+    public int restore(long[] buffer, int offset) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) buffer[offset + i];
+        }
+        return values.length;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
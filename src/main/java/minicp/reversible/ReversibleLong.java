@@ -0,0 +1,67 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+
+public class ReversibleLong implements Trailable, Copyable {
+    private Trail trail;
+    private long v;
+    private long lastMagic = -1L;
+
+    public ReversibleLong(Trail trail, long initial) {
+        this.trail = trail;
+        v = initial;
+        lastMagic = trail.magic;
+        trail.register(this);
+    }
+
+    private void trail() {
+        long trailMagic = trail.magic;
+        if (lastMagic != trailMagic) {
+            trail.pushOnTrail(this, v);
+            lastMagic = trailMagic;
+        }
+    }
+
+    public long setValue(long v) {
+        if (v != this.v) {
+            trail();
+            this.v = v;
+        }
+        return this.v;
+    }
+
+    public long getValue()  { return this.v; }
+
+    public void restore(long value) { this.v = value; }
+
+    public int stateSize() { return 1; }
+
+    public int save(long[] buffer, int offset) {
+        buffer[offset] = v;
+        return 1;
+    }
+
+    public int restore(long[] buffer, int offset) {
+        v = buffer[offset];
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return ""+v;
+    }
+}
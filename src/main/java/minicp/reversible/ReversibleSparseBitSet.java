@@ -0,0 +1,277 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import java.util.Arrays;
+
+/**
+ * Reversible sparse bit-set (Demeulenaere et al, CP 2016).
+ * The set is stored as an array of words,
+ * only the words that are modified are trailed, at most once per level
+ * as in {@link ReversibleIntStore}: the old words are stacked in a long array
+ * such that no object is allocated.
+ * The indexes of the non-zero words are kept in a sparse set
+ * such that the operations are in O(number of non-zero words).
+ * Bits can only be removed, by intersecting with a mask.
+ * With a {@link Copier} nothing is trailed, the words and their order
+ * are copied such that any saved state can be restored.
+ */
+public class ReversibleSparseBitSet implements Trailable, Copyable {
+
+    private final Trail trail;
+    private final boolean copied;
+    private final int nWords;
+    private final long[] words;
+    private final long[] lastMagic;
+    private long[] saved;
+    private int top = 0;
+    private final int[] nonZeroIdx;  // indexes of the words, the ones in [0..limit] are non-zero
+    private final ReversibleInt limit;
+    private final long[] mask;
+
+    /**
+     * A bit-set of the same size as the reversible set,
+     * e.g. the supports of a value in a table constraint.
+     */
+    public class StaticBitSet {
+
+        protected final long[] words;
+
+        /**
+         * Creates an empty bit-set
+         */
+        public StaticBitSet() {
+            words = new long[nWords];
+        }
+
+        /**
+         * Adds i in the bit-set
+         * @param i with 0 <= i < n
+         */
+        public void set(int i) {
+            words[i >>> 6] |= 1L << i;
+        }
+
+        /**
+         * @param i with 0 <= i < n
+         * @return true iff i is in the bit-set
+         */
+        public boolean get(int i) {
+            return (words[i >>> 6] & (1L << i)) != 0;
+        }
+    }
+
+    /**
+     * Creates a ReversibleSparseBitSet containing the elements {0,...,n-1}.
+     * @param trail
+     * @param n > 0
+     */
+    public ReversibleSparseBitSet(Trail trail, int n) {
+        this.trail = trail;
+        nWords = (n + 63) >>> 6;
+        words = new long[nWords];
+        lastMagic = new long[nWords];
+        saved = new long[nWords];
+        nonZeroIdx = new int[nWords];
+        mask = new long[nWords];
+        for (int i = 0; i < nWords; i++) {
+            // the bits above n in the last word are cleared
+            words[i] = (i == nWords - 1 && (n & 63) != 0) ? (1L << n) - 1 : -1L;
+            lastMagic[i] = -1L;
+            nonZeroIdx[i] = i;
+        }
+        limit = new ReversibleInt(trail, nWords - 1);
+        copied = trail.register(this);
+    }
+
+    private void setWord(int offset, long w) {
+        long magic = trail.magic;
+        if (lastMagic[offset] != magic && !copied) {
+            if (top == saved.length) saved = Arrays.copyOf(saved, top * 2);
+            saved[top] = words[offset];
+            trail.pushOnTrail(this, ((long) offset << 32) | top);
+            lastMagic[offset] = magic;
+            top++;
+        }
+        words[offset] = w;
+    }
+
+    @Override
+    public void restore(long value) {
+        top = (int) value;
+        words[(int) (value >>> 32)] = saved[top];
+    }
+
+    /**
+     * @return the number of words
+     */
+    public int getNumberOfWords() {
+        return nWords;
+    }
+
+    /**
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return limit.getValue() == -1;
+    }
+
+    /**
+     * @param i with 0 <= i < n
+     * @return true iff i is in the set
+     */
+    public boolean contains(int i) {
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * @return the number of elements in the set
+     */
+    public int cardinality() {
+        int c = 0;
+        for (int i = limit.getValue(); i >= 0; i--) {
+            c += Long.bitCount(words[nonZeroIdx[i]]);
+        }
+        return c;
+    }
+
+    /**
+     * Clears the temporary mask
+     */
+    public void clearMask() {
+        for (int i = limit.getValue(); i >= 0; i--) {
+            mask[nonZeroIdx[i]] = 0L;
+        }
+    }
+
+    /**
+     * Complements the temporary mask
+     */
+    public void reverseMask() {
+        for (int i = limit.getValue(); i >= 0; i--) {
+            int offset = nonZeroIdx[i];
+            mask[offset] = ~mask[offset];
+        }
+    }
+
+    /**
+     * Adds the elements of b in the temporary mask
+     * @param b
+     */
+    public void addToMask(StaticBitSet b) {
+        for (int i = limit.getValue(); i >= 0; i--) {
+            int offset = nonZeroIdx[i];
+            mask[offset] |= b.words[offset];
+        }
+    }
+
+    /**
+     * Removes from the set the elements that are not in the temporary mask
+     * @return true if the set was modified
+     */
+    public boolean intersectWithMask() {
+        boolean changed = false;
+        int l = limit.getValue();
+        for (int i = l; i >= 0; i--) {
+            int offset = nonZeroIdx[i];
+            long w = words[offset];
+            long wMasked = w & mask[offset];
+            if (wMasked != w) {
+                changed = true;
+                setWord(offset, wMasked);
+                if (wMasked == 0L) {
+                    nonZeroIdx[i] = nonZeroIdx[l];
+                    nonZeroIdx[l] = offset;
+                    l--;
+                }
+            }
+        }
+        limit.setValue(l);
+        return changed;
+    }
+
+    /**
+     * @param b
+     * @return the index of a word of the set intersecting b, -1 if none
+     */
+    public int intersectIndex(StaticBitSet b) {
+        for (int i = limit.getValue(); i >= 0; i--) {
+            int offset = nonZeroIdx[i];
+            if ((words[offset] & b.words[offset]) != 0L) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param b
+     * @return true iff the set and b have at least one common element
+     */
+    public boolean intersects(StaticBitSet b) {
+        return intersectIndex(b) != -1;
+    }
+
+    /**
+     * Checks if the set and b intersect on a given word,
+     * typically a residue returned by intersectIndex(b)
+     * @param b
+     * @param wordIndex with 0 <= wordIndex < getNumberOfWords()
+     * @return true iff the set and b have a common element in the word wordIndex
+     */
+    public boolean intersects(StaticBitSet b, int wordIndex) {
+        return (words[wordIndex] & b.words[wordIndex]) != 0L;
+    }
+
+    @Override
+    public int stateSize() {
+        return 2 * nWords;
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        System.arraycopy(words, 0, buffer, offset, nWords);
+        for (int i = 0; i < nWords; i++) {
+            buffer[offset + nWords + i] = nonZeroIdx[i];
+        }
+        return 2 * nWords;
+    }
+
+    @Override
+    public int restore(long[] buffer, int offset) {
+        System.arraycopy(buffer, offset, words, 0, nWords);
+        for (int i = 0; i < nWords; i++) {
+            nonZeroIdx[i] = (int) buffer[offset + nWords + i];
+        }
+        return 2 * nWords;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append("{");
+        boolean first = true;
+        for (int i = 0; i < nWords << 6; i++) {
+            if (contains(i)) {
+                if (!first) b.append(',');
+                b.append(i);
+                first = false;
+            }
+        }
+        b.append("}");
+        return b.toString();
+    }
+}
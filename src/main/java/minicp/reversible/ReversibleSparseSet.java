@@ -19,13 +19,21 @@ import minicp.util.NotImplementedException;
 
 import java.util.NoSuchElementException;
 
-public class ReversibleSparseSet {
+/**
+ * The removed values are kept after the present ones in the values array.
+ * Restoring the size is enough to backtrack to an ancestor,
+ * with a {@link Copier} the order of the values is copied as well
+ * such that any saved state can be restored.
+ */
+public class ReversibleSparseSet implements Copyable {
 
     private int [] values;
     private int [] indexes;
-    private ReversibleInt size;
-    private ReversibleInt min;
-    private ReversibleInt max;
+    private static final int SIZE = 0;
+    private static final int MIN = 1;
+    private static final int MAX = 2;
+    // size, min and max are saved together as a single trail entry
+    private ReversibleIntTuple state;
     private int n;
 
     /**
@@ -35,15 +43,14 @@ public class ReversibleSparseSet {
      */
     public ReversibleSparseSet(Trail rs, int n) {
         this.n = n;
-        size = new ReversibleInt(rs,n);
-        min = new ReversibleInt(rs,0);
-        max = new ReversibleInt(rs,n-1);
+        state = new ReversibleIntTuple(rs,n,0,n-1);
         values = new int [n];
         indexes = new int [n];
         for (int i = 0; i < n; i++) {
             values[i] = i;
             indexes[i] = i;
         }
+        rs.register(this);
     }
 
     /**
@@ -91,11 +98,26 @@ public class ReversibleSparseSet {
      * @return the size of the set
      */
     public int fillArray(int [] dest) {
-        int s = size.getValue();
+        int s = state.get(SIZE);
         System.arraycopy(values, 0, dest, 0, s);
         return s;
     }
 
+    /**
+     * set the first values of <code>dest</code> to the ones
+     * removed since the set had the size oldSize.
+     * The removed values are kept after the present ones,
+     * hence this is only valid if the set was not restored in between.
+     * @param oldSize, a previous size of the set with oldSize >= getSize()
+     * @param dest, an array large enough dest.length >= oldSize - getSize()
+     * @return the number of removed values
+     */
+    public int fillDeltaArray(int oldSize, int [] dest) {
+        int s = state.get(SIZE);
+        System.arraycopy(values, s, dest, 0, oldSize - s);
+        return oldSize - s;
+    }
+
     /**
      * @return true if the set is empty
      */
@@ -106,14 +128,14 @@ public class ReversibleSparseSet {
     /**
      * @return the size of the set
      */
-    public int getSize() { return size.getValue(); }
+    public int getSize() { return state.get(SIZE); }
 
     /**
      * @return the minimum value in the set
      */
     public int getMin() {
         if (isEmpty()) throw new NoSuchElementException();
-        return min.getValue();
+        return state.get(MIN);
     }
 
     /**
@@ -121,37 +143,52 @@ public class ReversibleSparseSet {
      */
     public int getMax() {
         if (isEmpty()) throw new NoSuchElementException();
-        else return max.getValue();
-    }
-
-    private void updateBoundsValRemoved(int val) {
-        updateMaxValRemoved(val);
-        updateMinValRemoved(val);
+        else return state.get(MAX);
     }
 
-    private void updateMaxValRemoved(int val) {
-        if (!isEmpty() && max.getValue() == val) {
-            assert(!contains(val));
-            //the maximum was removed, search the new one
-            for (int v = val-1; v >= min.getValue(); v--) {
-                if (contains(v)) {
-                    max.setValue(v);
-                    return;
-                }
+    /**
+     * @param from a value such that the set contains a value >= from
+     * @return the smallest value >= from in the set
+     */
+    private int minFrom(int from) {
+        int s = getSize();
+        int mx = state.get(MAX);
+        if (mx - from < s) {
+            // scan the range of values
+            for (int v = from; v < mx; v++) {
+                if (indexes[v] < s) return v;
+            }
+            return mx;
+        } else {
+            // scan the values present in the set
+            int m = Integer.MAX_VALUE;
+            for (int i = 0; i < s; i++) {
+                if (values[i] >= from && values[i] < m) m = values[i];
             }
+            return m;
         }
     }
 
-    private void updateMinValRemoved(int val) {
-        if (!isEmpty() && min.getValue() == val) {
-            assert(!contains(val));
-            //the minimum was removed, search the new one
-            for (int v = val+1; v <= max.getValue(); v++) {
-                if (contains(v)) {
-                    min.setValue(v);
-                    return;
-                }
+    /**
+     * @param to a value such that the set contains a value <= to
+     * @return the largest value <= to in the set
+     */
+    private int maxTo(int to) {
+        int s = getSize();
+        int mn = state.get(MIN);
+        if (to - mn < s) {
+            // scan the range of values
+            for (int v = to; v > mn; v--) {
+                if (indexes[v] < s) return v;
             }
+            return mn;
+        } else {
+            // scan the values present in the set
+            int m = Integer.MIN_VALUE;
+            for (int i = 0; i < s; i++) {
+                if (values[i] <= to && values[i] > m) m = values[i];
+            }
+            return m;
         }
     }
 
@@ -165,8 +202,11 @@ public class ReversibleSparseSet {
         if (!contains(val)) return false; //the value has already been removed
         int s = getSize();
         exchangePositions(val, values[s-1]);
-        size.decrement();
-        updateBoundsValRemoved(val);
+        state.set(SIZE,state.get(SIZE) - 1);
+        if (!isEmpty()) {
+            if (state.get(MIN) == val) state.set(MIN,minFrom(val + 1));
+            else if (state.get(MAX) == val) state.set(MAX,maxTo(val - 1));
+        }
         return true;
     }
 
@@ -194,20 +234,55 @@ public class ReversibleSparseSet {
         values[0] = v;
         indexes[val] = index;
         values[index] = val;
-        min.setValue(v);
-        max.setValue(v);
-        size.setValue(1);
+        state.set(MIN,v);
+        state.set(MAX,v);
+        state.set(SIZE,1);
+    }
+
+    /**
+     * Marks val to be kept by retainMarked(),
+     * the marked values are moved to the first positions
+     * @param val
+     * @param marked the number of values marked since the last retainMarked()
+     * @return the new number of marked values
+     */
+    public int mark(int val, int marked) {
+        if (contains(val) && indexes[val] >= marked) {
+            exchangePositions(val, values[marked]);
+            marked++;
+        }
+        return marked;
+    }
+
+    /**
+     * Removes all the values but the marked ones, in O(marked)
+     * @param marked the number of values marked with mark()
+     */
+    public void retainMarked(int marked) {
+        if (marked == getSize()) return;
+        state.set(SIZE,marked);
+        if (marked > 0) {
+            int mn = values[0];
+            int mx = values[0];
+            for (int i = 1; i < marked; i++) {
+                mn = Math.min(mn, values[i]);
+                mx = Math.max(mx, values[i]);
+            }
+            state.set(MIN,mn);
+            state.set(MAX,mx);
+        }
     }
 
     /**
      * Remove all the values in the set
      */
     public void removeAll() {
-        size.setValue(0);
+        state.set(SIZE,0);
     }
 
     /**
-     * Remove all the values < value in the set
+     * Remove all the values < value in the set.
+     * The values are removed in bulk, in O(min(value-getMin(),getSize()))
      * @param value
      * @return the new minimum
      */
@@ -215,33 +290,89 @@ public class ReversibleSparseSet {
         if (getMax() < value) {
             removeAll();
             return Integer.MAX_VALUE;
+        }
+        int m = getMin();
+        if (m >= value) return m;
+        int s = getSize();
+        if (value - m <= s) {
+            for (int v = m; v < value; v++) {
+                if (indexes[v] < s) {
+                    exchangePositions(v, values[s-1]);
+                    s--;
+                }
+            }
         } else {
-            for (int v = getMin(); v < value; v++) {
-                remove(v);
+            for (int i = s - 1; i >= 0; i--) {
+                int v = values[i];
+                if (v < value) {
+                    exchangePositions(v, values[s-1]);
+                    s--;
+                }
             }
-            return getMin();
         }
+        state.set(SIZE,s);
+        state.set(MIN,minFrom(value));
+        return getMin();
     }
 
     /**
-     * Remove all the values > value in the set
+     * Remove all the values > value in the set.
+     * The values are removed in bulk, in O(min(getMax()-value,getSize()))
      * @param value
      * @return the new maximum
      */
     public int removeAbove(int value) {
-        int max = getMax();
         if (getMin() > value) {
             removeAll();
             return Integer.MIN_VALUE;
         }
-        else {
-            for (int v = value + 1; v <= max; v++) {
-                remove(v);
+        int m = getMax();
+        if (m <= value) return m;
+        int s = getSize();
+        if (m - value <= s) {
+            for (int v = m; v > value; v--) {
+                if (indexes[v] < s) {
+                    exchangePositions(v, values[s-1]);
+                    s--;
+                }
+            }
+        } else {
+            for (int i = s - 1; i >= 0; i--) {
+                int v = values[i];
+                if (v > value) {
+                    exchangePositions(v, values[s-1]);
+                    s--;
+                }
             }
-            return getMax();
         }
+        state.set(SIZE,s);
+        state.set(MAX,maxTo(value));
+        return getMax();
+    }
+
+
+    @Override
+    public int stateSize() {
+        return n;
+    }
+
+    @Override
+    public int save(long[] buffer, int offset) {
+        for (int i = 0; i < n; i++) {
+            buffer[offset + i] = values[i];
+        }
+        return n;
     }
 
+    @Override
+    public int restore(long[] buffer, int offset) {
+        for (int i = 0; i < n; i++) {
+            int v = (int) buffer[offset + i];
+            values[i] = v;
+            indexes[v] = i;
+        }
+        return n;
+    }
 
     @Override
     public String toString() {
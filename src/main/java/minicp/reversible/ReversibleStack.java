@@ -15,24 +15,76 @@
 
 package minicp.reversible;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
-public class ReversibleStack<E> {
+/**
+ * A stack whose size is reversible:
+ * the elements pushed are removed on backtrack.
+ * The elements are stored in an array and a push overwrites
+ * in place the slot left free by a backtrack.
+ * With a {@link Copier} the elements are copied as well,
+ * such that any saved state can be restored.
+ */
+public class ReversibleStack<E> implements Copyable {
+
+    private static final int MIN_CAPACITY = 4;
 
     ReversibleInt size;
-    ArrayList<E> stack;
+    private Object[] stack;
 
     public ReversibleStack(Trail rc) {
         size = new ReversibleInt(rc,0);
-        stack = new ArrayList<E>();
+        stack = new Object[MIN_CAPACITY];
+        rc.register(this);
     }
 
     public void push(E elem) {
-        stack.add(size.getValue(),elem);
+        int s = size.getValue();
+        if (s == stack.length) {
+            stack = Arrays.copyOf(stack, s * 2);
+        } else if (s < stack.length / 4 && stack.length > MIN_CAPACITY) {
+            // the slots above the size are never read again after a backtrack:
+            // release them once the stack is mostly empty
+            stack = Arrays.copyOf(stack, Math.max(MIN_CAPACITY, stack.length / 2));
+        }
+        stack[s] = elem;
         size.increment();
     }
 
     public int size() { return size.getValue(); }
 
-    public E get(int index) { return stack.get(index); }
+    @SuppressWarnings("unchecked")
+    public E get(int index) { return (E) stack[index]; }
+
+    // the size is copied as a ReversibleInt registered before the stack,
+    // it is already restored when the elements are
+
+    @Override
+    public int stateSize() { return 0; }
+
+    @Override
+    public int save(long[] buffer, int offset) { return 0; }
+
+    @Override
+    public int restore(long[] buffer, int offset) { return 0; }
+
+    @Override
+    public int objectStateSize() {
+        return size.getValue();
+    }
+
+    @Override
+    public int saveObjects(Object[] buffer, int offset) {
+        int s = size.getValue();
+        System.arraycopy(stack, 0, buffer, offset, s);
+        return s;
+    }
+
+    @Override
+    public int restoreObjects(Object[] buffer, int offset) {
+        int s = size.getValue();
+        if (s > stack.length) stack = Arrays.copyOf(stack, Math.max(s, stack.length * 2));
+        System.arraycopy(buffer, offset, stack, 0, s);
+        return s;
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import java.util.Arrays;
+
+/**
+ * A list whose elements can be added and removed reversibly.
+ * The elements are kept in an array, the list is its prefix of length size().
+ * An element is removed by swapping it with the last element of the list,
+ * the swap is trailed as a single entry packing both positions and is undone on backtrack.
+ * The removed elements are kept after the list and an added element is
+ * swapped in front of them, such that they are never overwritten
+ * while they can still be restored.
+ * The array is halved by an add() once a backtrack left it mostly empty.
+ * With a {@link Copier} the swaps are not trailed, the stored elements
+ * are copied instead, such that any saved state can be restored.
+ */
+public class ReversibleSwapList<E> implements Trailable, Copyable {
+
+    private static final int MIN_CAPACITY = 4;
+    private static final int SIZE = 0;
+    private static final int STORED = 1;
+
+    private final Trail trail;
+    // the number of elements in the list, and the number of elements stored in the array
+    private final ReversibleIntTuple state;
+    private Object[] elements;
+
+    public ReversibleSwapList(Trail trail) {
+        this.trail = trail;
+        state = new ReversibleIntTuple(trail, 0, 0);
+        elements = new Object[MIN_CAPACITY];
+        trail.register(this);
+    }
+
+    private void swap(int i, int j) {
+        Object e = elements[i];
+        elements[i] = elements[j];
+        elements[j] = e;
+    }
+
+    private void trailSwap(int i, int j) {
+        trail.pushOnTrail(this, ((long) i << 32) | j);
+        swap(i, j);
+    }
+
+    @Override
+    public void restore(long value) {
+        swap((int) (value >>> 32), (int) value);
+    }
+
+    public void add(E elem) {
+        int stored = state.get(STORED);
+        if (stored == elements.length) {
+            elements = Arrays.copyOf(elements, stored * 2);
+        } else if (stored < elements.length / 4 && elements.length > MIN_CAPACITY) {
+            // the slots above the stored elements are never read again after a backtrack:
+            // release them once the array is mostly empty
+            elements = Arrays.copyOf(elements, Math.max(MIN_CAPACITY, elements.length / 2));
+        }
+        elements[stored] = elem;
+        state.set(STORED, stored + 1);
+        int size = state.get(SIZE);
+        if (size != stored) trailSwap(size, stored);
+        state.set(SIZE, size + 1);
+    }
+
+    /**
+     * Removes the element at the given position,
+     * it is replaced by the last element of the list
+     * @param index with 0 <= index < size()
+     */
+    public void remove(int index) {
+        int last = state.get(SIZE) - 1;
+        if (index != last) trailSwap(index, last);
+        state.set(SIZE, last);
+    }
+
+    public int size() { return state.get(SIZE); }
+
+    // the length of the backing array
+    int capacity() { return elements.length; }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) { return (E) elements[index]; }
+
+    // the state tuple is copied as a reversible object registered before the list,
+    // it is already restored when the elements are
+
+    @Override
+    public int stateSize() { return 0; }
+
+    @Override
+    public int save(long[] buffer, int offset) { return 0; }
+
+    @Override
+    public int restore(long[] buffer, int offset) { return 0; }
+
+    @Override
+    public int objectStateSize() {
+        return state.get(STORED);
+    }
+
+    @Override
+    public int saveObjects(Object[] buffer, int offset) {
+        int stored = state.get(STORED);
+        System.arraycopy(elements, 0, buffer, offset, stored);
+        return stored;
+    }
+
+    @Override
+    public int restoreObjects(Object[] buffer, int offset) {
+        int stored = state.get(STORED);
+        if (stored > elements.length) elements = Arrays.copyOf(elements, Math.max(stored, elements.length * 2));
+        System.arraycopy(buffer, offset, elements, 0, stored);
+        return stored;
+    }
+}
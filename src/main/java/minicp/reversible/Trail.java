@@ -15,23 +15,183 @@
 
 package minicp.reversible;
 
-import java.util.Stack;
+import java.util.Arrays;
 
 
 public class Trail {
 
+    protected static final int INITIAL_CAPACITY = 1024;
+
     public long magic = 0;
-    private Stack<TrailEntry> trail = new Stack<TrailEntry>();
-    private Stack<Integer>    trailLimit = new Stack<Integer>();
+
+    // The trail is stored as parallel primitive arrays:
+    // owners[i] is either a TrailEntry or a Trailable,
+    // in the latter case values[i] is the value to restore.
+    // The storage of the values can be redefined by subclasses.
+    private Object[] owners = new Object[INITIAL_CAPACITY];
+    private long[] values;
+    private int size = 0;
+    // size at which pushOnTrail must grow the arrays or fail
+    private int threshold = INITIAL_CAPACITY;
+    private int maxSize = Integer.MAX_VALUE;
+
+    private int[] trailLimit = new int[64];
+    private int nLevels = 0;
+
+    // statistics
+    private int peakSize = 0;
+    private long nPops = 0;
+    private long nRestoredEntries = 0;
 
     /**
      * Initialize a reversible context
      * The current level is -1
      */
-    public Trail() {}
+    public Trail() {
+        this(true);
+    }
+
+    /**
+     * @param onHeapValues false for a subclass redefining the storage of the values,
+     *                     such that the on-heap array of values is not allocated
+     * @see #storeValue(int, long)
+     */
+    protected Trail(boolean onHeapValues) {
+        if (onHeapValues) values = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Registers an object whose state can be copied.
+     * This is only needed by state managers restoring by copy, see {@link Copier},
+     * the trail itself does nothing.
+     * @param object
+     * @return true if the object is restored by copy, such that it does not need to be trailed
+     */
+    public boolean register(Copyable object) {
+        return false;
+    }
 
     public void pushOnTrail(TrailEntry entry) {
-        trail.push(entry);
+        if (size == threshold) reachThreshold();
+        owners[size++] = entry;
+    }
+
+    /**
+     * Stacks the state of a primitive reversible object,
+     * this does not allocate any object.
+     * The owner must consider itself trailed at this level only once this
+     * returns: it throws a TrailLimitException when the maximum size is reached.
+     * @param owner the object to restore on pop()
+     * @param value the value given back to owner.restore(long)
+     */
+    public void pushOnTrail(Trailable owner, long value) {
+        if (size == threshold) reachThreshold();
+        owners[size] = owner;
+        storeValue(size, value);
+        size++;
+    }
+
+    private void reachThreshold() {
+        if (size >= maxSize) throw new TrailLimitException(maxSize);
+        if (size == owners.length) {
+            int capacity = owners.length * 2;
+            owners = Arrays.copyOf(owners, capacity);
+            growValues(capacity);
+        }
+        threshold = Math.min(owners.length, maxSize);
+    }
+
+    /**
+     * Stores the value of the i_th entry,
+     * the storage has a capacity of at least i+1 values.
+     * @param i
+     * @param value
+     */
+    protected void storeValue(int i, long value) {
+        values[i] = value;
+    }
+
+    /**
+     * @param i
+     * @return the value of the i_th entry
+     */
+    protected long loadValue(int i) {
+        return values[i];
+    }
+
+    /**
+     * Increases the capacity of the storage of the values
+     * @param capacity the new capacity
+     */
+    protected void growValues(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * Limits the number of entries on the trail,
+     * a {@link TrailLimitException} is thrown when an entry
+     * is pushed on a full trail.
+     * @param maxSize the maximum number of entries, Integer.MAX_VALUE for no limit
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        this.threshold = Math.min(owners.length, maxSize);
+        if (threshold < size) threshold = size;
+    }
+
+    /**
+     * @return the maximum number of entries on the trail
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of entries currently on the trail
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the largest number of entries that have been on the trail
+     *         since the creation of the trail or the last setPeakSize()
+     */
+    public int getPeakSize() {
+        return Math.max(peakSize, size);
+    }
+
+    /**
+     * Restarts the recording of the peak size,
+     * e.g. to measure the peak of a single search
+     * @param peak the peak size to start from, the current size if smaller
+     */
+    public void setPeakSize(int peak) {
+        peakSize = Math.max(peak, size);
+    }
+
+    /**
+     * @param level with -1 <= level <= getLevel()
+     * @return the number of entries pushed on the trail at this level
+     */
+    public int getLevelSize(int level) {
+        int from = level < 0 ? 0 : trailLimit[level];
+        int to = level + 1 < nLevels ? trailLimit[level + 1] : size;
+        return to - from;
+    }
+
+    /**
+     * @return the number of pop() since the creation of the trail
+     */
+    public long getNumberOfPops() {
+        return nPops;
+    }
+
+    /**
+     * @return the number of entries restored since the creation of the trail
+     */
+    public long getNumberOfRestoredEntries() {
+        return nRestoredEntries;
     }
 
     /**
@@ -39,18 +199,23 @@ public class Trail {
      * Restore all the entries from the top of the trailStack
      * to the limit (excluded)
      */
-    private void restoreToSize(int size) {
-        int n = trail.size() - size;
-        for (int i = 0; i < n; i++) {
-            trail.pop().restore();
+    private void restoreToSize(int newSize) {
+        if (size > peakSize) peakSize = size;
+        nRestoredEntries += size - newSize;
+        for (int i = size - 1; i >= newSize; i--) {
+            Object owner = owners[i];
+            owners[i] = null; // let the GC reclaim the entry
+            if (owner instanceof Trailable) ((Trailable) owner).restore(loadValue(i));
+            else ((TrailEntry) owner).restore();
         }
+        size = newSize;
     }
 
     /**
      * @return The current level
      */
     public int getLevel() {
-        return trailLimit.size()-1;
+        return nLevels-1;
     }
 
     /**
@@ -60,7 +225,8 @@ public class Trail {
      */
     public void push() {
         magic++;
-        trailLimit.push(trail.size());
+        if (nLevels == trailLimit.length) trailLimit = Arrays.copyOf(trailLimit, nLevels * 2);
+        trailLimit[nLevels++] = size;
     }
 
 
@@ -69,7 +235,8 @@ public class Trail {
      *  Decrease the level by 1
      */
     public void pop() {
-        restoreToSize(trailLimit.pop());
+        nPops++;
+        restoreToSize(trailLimit[--nLevels]);
         // Increments the magic because we want to trail again
         magic++;
     }
@@ -81,7 +248,9 @@ public class Trail {
      */
     public void popAll() {
         popUntil(-1);
-        trail.clear();
+        if (size > peakSize) peakSize = size;
+        Arrays.fill(owners, 0, size, null);
+        size = 0;
     }
 
     /**
@@ -95,4 +264,3 @@ public class Trail {
     }
 
 }
-
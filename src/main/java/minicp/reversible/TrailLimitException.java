@@ -0,0 +1,30 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+/**
+ * Thrown when an entry is pushed on a Trail
+ * that already reached its maximum size
+ * @see Trail#setMaxSize(int)
+ */
+public class TrailLimitException extends RuntimeException {
+
+    private static final long serialVersionUID = 5281746270461920836L;
+
+    public TrailLimitException(int maxSize) {
+        super("trail limit of " + maxSize + " entries reached");
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+/**
+ * A Trailable is a reversible object whose state fits in a long.
+ * Its previous state is stacked on a Trail
+ * through the method @see {@link Trail#pushOnTrail(Trailable, long)}
+ * such that no {@link TrailEntry} has to be allocated.
+ */
+public interface Trailable {
+    /**
+     * Restores the state previously stacked on the trail
+     * @param value the value given to {@link Trail#pushOnTrail(Trailable, long)}
+     */
+    public void restore(long value);
+}
@@ -16,6 +16,7 @@
 package minicp.search;
 
 import minicp.reversible.Trail;
+import minicp.reversible.TrailLimitException;
 import minicp.util.InconsistencyException;
 
 import java.util.LinkedList;
@@ -63,12 +64,28 @@ public class DFSearch {
         this.choice = branching;
     }
 
+    /**
+     * Starts the search, it stops when the tree is explored,
+     * when the limit is reached or when the trail reaches its
+     * maximum size (see {@link Trail#setMaxSize(int)}).
+     * @param limit
+     * @return the statistics of the search
+     */
     public SearchStatistics start(SearchLimit limit) {
         SearchStatistics statistics = new SearchStatistics();
         int level = state.getLevel();
+        // the peak of this search only, the one of the trail is restored afterwards
+        int peak = state.getPeakSize();
+        state.setPeakSize(0);
         try {
             dfs(statistics,limit);
-        } catch (StopSearchException e) {}
+            statistics.completed = true;
+        } catch (StopSearchException e) {
+        } catch (TrailLimitException e) {
+            statistics.trailLimitReached = true;
+        }
+        statistics.trailPeakSize = state.getPeakSize();
+        state.setPeakSize(Math.max(peak, statistics.trailPeakSize));
         state.popUntil(level);
         return statistics;
     }
@@ -20,7 +20,12 @@ public class SearchStatistics {
     public int nFailures = 0;
     public int nNodes = 0;
     public int nSolutions = 0;
+    public boolean completed = false;
+    public boolean trailLimitReached = false;
+    public int trailPeakSize = 0;
     public String toString() {
-        return "\n\t#choice: " + nNodes + "\n\t#fail: " + nFailures + "\n\t#sols : " + nSolutions + "\n";
+        return "\n\t#choice: " + nNodes + "\n\t#fail: " + nFailures + "\n\t#sols : " + nSolutions +
+                "\n\tcompleted: " + completed + (trailLimitReached ? " (trail limit reached)" : "") +
+                "\n\ttrail peak size: " + trailPeakSize + "\n";
     }
 }
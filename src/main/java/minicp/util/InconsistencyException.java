@@ -16,6 +16,12 @@
 package minicp.util;
 
 
+/**
+ * Thrown when a domain becomes empty or a constraint detects a failure.
+ * The exception carries no stack trace and no state, so failure paths
+ * should throw the shared {@link #INCONSISTENCY} instance rather than
+ * allocating a new one.
+ */
 public class InconsistencyException extends Throwable {
 
     public static final InconsistencyException INCONSISTENCY = new InconsistencyException();
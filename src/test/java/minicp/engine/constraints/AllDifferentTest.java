@@ -15,8 +15,10 @@
 
 package minicp.engine.constraints;
 
+import minicp.cp.Consistency;
 import minicp.engine.core.IntVar;
 import minicp.engine.core.Solver;
+import minicp.reversible.Copier;
 import minicp.search.SearchStatistics;
 import minicp.util.InconsistencyException;
 import org.junit.Test;
@@ -25,6 +27,7 @@ import static minicp.cp.Factory.*;
 import static minicp.cp.Heuristics.firstFail;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 
 public class AllDifferentTest {
@@ -68,4 +71,401 @@ public class AllDifferentTest {
         }
     }
 
+
+    @Test
+    public void allDifferentTest3() {
+
+        Solver cp  = makeSolver();
+
+        IntVar [] x = makeIntVarArray(cp,3,3);
+
+        try {
+            cp.post(allDifferent(x));
+            notEqual(x[0],0);
+            notEqual(x[1],0);
+            // binding x[0] binds x[1] to 2 which in turn binds x[2] to 0
+            equal(x[0],1);
+            assertTrue(x[1].isBound());
+            assertEquals(2,x[1].getMin());
+            assertTrue(x[2].isBound());
+            assertEquals(0,x[2].getMin());
+
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+
+        cp  = makeSolver();
+        x = new IntVar[] {makeIntVar(cp,0,2),makeIntVar(cp,1,1),makeIntVar(cp,1,1)};
+
+        try {
+            cp.post(allDifferent(x));
+            assert(false);
+        } catch (InconsistencyException e) {
+        }
+    }
+
+    @Test
+    public void allDifferentTest4() {
+        // same search tree as the decomposition into NotEqual constraints
+        java.util.Random rand = new java.util.Random(0);
+        for (int iter = 0; iter < 20; iter++) {
+            Solver cp1 = makeSolver();
+            Solver cp2 = makeSolver();
+            IntVar [] x1 = new IntVar[6];
+            IntVar [] x2 = new IntVar[6];
+            for (int i = 0; i < x1.length; i++) {
+                int min = rand.nextInt(4);
+                int max = min + rand.nextInt(5);
+                x1[i] = makeIntVar(cp1,min,max);
+                x2[i] = makeIntVar(cp2,min,max);
+            }
+            try {
+                cp1.post(new AllDifferentFC(x1));
+                cp2.post(new AllDifferentBinary(x2));
+            } catch (InconsistencyException e) {
+                continue;
+            }
+            SearchStatistics stats1 = makeDfs(cp1,firstFail(x1)).start();
+            SearchStatistics stats2 = makeDfs(cp2,firstFail(x2)).start();
+            assertEquals(stats2.nSolutions,stats1.nSolutions);
+            assertEquals(stats2.nFailures,stats1.nFailures);
+            assertEquals(stats2.nNodes,stats1.nNodes);
+        }
+    }
+
+
+    @Test
+    public void allDifferentTestSiblingSnapshot() {
+        Solver cp = makeSolver(new Copier());
+        Copier copier = (Copier) cp.getTrail();
+        IntVar [] x = makeIntVarArray(cp,4,4);
+
+        try {
+            cp.post(allDifferent(x));
+
+            copier.push();
+            equal(x[0],0);
+            Copier.Snapshot snapshot = copier.saveState();
+            copier.pop();
+
+            copier.push();
+            equal(x[1],1);
+
+            copier.restoreState(snapshot);
+            equal(x[1],1);
+            assertFalse(x[2].contains(1));
+            assertFalse(x[3].contains(1));
+            assertEquals(2,x[2].getSize());
+            copier.pop();
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+    }
+
+    @Test
+    public void allDifferentBCTest1() {
+
+        Solver cp  = makeSolver();
+
+        IntVar [] x = new IntVar[] {makeIntVar(cp,1,2),makeIntVar(cp,1,2),makeIntVar(cp,1,3),makeIntVar(cp,1,6)};
+
+        try {
+            cp.post(allDifferent(x, Consistency.BOUNDS));
+            // [1,2] is a Hall interval, then [1,3]
+            assertTrue(x[2].isBound());
+            assertEquals(3,x[2].getMin());
+            assertEquals(4,x[3].getMin());
+            assertEquals(6,x[3].getMax());
+
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+
+        cp  = makeSolver();
+        x = new IntVar[] {makeIntVar(cp,0,1),makeIntVar(cp,0,5),makeIntVar(cp,0,1),makeIntVar(cp,1,2)};
+
+        try {
+            cp.post(allDifferent(x, Consistency.BOUNDS));
+            assertEquals(3,x[1].getMin());
+            equal(x[3],1);
+            assert(false);
+        } catch (InconsistencyException e) {
+        }
+
+        cp  = makeSolver();
+        x = makeIntVarArray(cp,4,3);
+
+        try {
+            cp.post(allDifferent(x, Consistency.BOUNDS));
+            assert(false);
+        } catch (InconsistencyException e) {
+        }
+    }
+
+    @Test
+    public void allDifferentBCTest4() {
+        // bounds at the ends of the integers
+        int max = Integer.MAX_VALUE;
+        int min = Integer.MIN_VALUE;
+        Solver cp  = makeSolver();
+        IntVar [] x = new IntVar[] {makeIntVar(cp,max - 1,max),makeIntVar(cp,max - 1,max),makeIntVar(cp,max - 3,max)};
+        try {
+            cp.post(allDifferent(x, Consistency.BOUNDS));
+            assertEquals(max - 3,x[2].getMin());
+            assertEquals(max - 2,x[2].getMax());
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+
+        cp  = makeSolver();
+        x = new IntVar[] {makeIntVar(cp,min,min + 1),makeIntVar(cp,min,min + 1),makeIntVar(cp,min,min + 3)};
+        try {
+            cp.post(allDifferent(x, Consistency.BOUNDS));
+            assertEquals(min + 2,x[2].getMin());
+            assertEquals(min + 3,x[2].getMax());
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+
+        cp  = makeSolver();
+        x = new IntVar[] {makeIntVar(cp,max - 1,max),makeIntVar(cp,max - 1,max),makeIntVar(cp,max - 1,max)};
+        try {
+            cp.post(allDifferent(x, Consistency.BOUNDS));
+            assert(false);
+        } catch (InconsistencyException e) {
+        }
+
+        cp  = makeSolver();
+        x = new IntVar[] {makeIntVar(cp,min,min + 1),makeIntVar(cp,min,min + 1),makeIntVar(cp,min,min + 1)};
+        try {
+            cp.post(allDifferent(x, Consistency.BOUNDS));
+            assert(false);
+        } catch (InconsistencyException e) {
+        }
+    }
+
+    @Test
+    public void allDifferentBCTest2() {
+        // the bounds have a support in the intervals of the other variables
+        java.util.Random rand = new java.util.Random(0);
+        for (int iter = 0; iter < 200; iter++) {
+            Solver cp = makeSolver();
+            IntVar [] x = new IntVar[5];
+            int [] min = new int[x.length];
+            int [] max = new int[x.length];
+            for (int i = 0; i < x.length; i++) {
+                min[i] = rand.nextInt(5);
+                max[i] = min[i] + rand.nextInt(4);
+                x[i] = makeIntVar(cp,min[i],max[i]);
+            }
+            try {
+                cp.post(new AllDifferentBC(x));
+            } catch (InconsistencyException e) {
+                assertFalse(hasSupport(min,max,new int[x.length],0));
+                continue;
+            }
+            for (int i = 0; i < x.length; i++) {
+                min[i] = x[i].getMin();
+                max[i] = x[i].getMax();
+            }
+            for (int i = 0; i < x.length; i++) {
+                int [] min1 = min.clone();
+                int [] max1 = max.clone();
+                max1[i] = min[i];
+                assertTrue(hasSupport(min1,max1,new int[x.length],0));
+                min1[i] = max1[i] = max[i];
+                assertTrue(hasSupport(min1,max1,new int[x.length],0));
+            }
+        }
+    }
+
+    @Test
+    public void allDifferentBCTest3() {
+        // same solutions as the forward checking
+        java.util.Random rand = new java.util.Random(1);
+        for (int iter = 0; iter < 20; iter++) {
+            Solver cp1 = makeSolver();
+            Solver cp2 = makeSolver();
+            IntVar [] x1 = new IntVar[6];
+            IntVar [] x2 = new IntVar[6];
+            for (int i = 0; i < x1.length; i++) {
+                int min = rand.nextInt(4);
+                int max = min + rand.nextInt(5);
+                x1[i] = makeIntVar(cp1,min,max);
+                x2[i] = makeIntVar(cp2,min,max);
+            }
+            int nSolutions1 = 0;
+            try {
+                cp1.post(allDifferent(x1, Consistency.BOUNDS));
+                SearchStatistics stats1 = makeDfs(cp1,firstFail(x1)).start();
+                nSolutions1 = stats1.nSolutions;
+            } catch (InconsistencyException e) {
+            }
+            int nSolutions2 = 0;
+            try {
+                cp2.post(allDifferent(x2, Consistency.FORWARD_CHECKING));
+                nSolutions2 = makeDfs(cp2,firstFail(x2)).start().nSolutions;
+            } catch (InconsistencyException e) {
+            }
+            assertEquals(nSolutions2,nSolutions1);
+        }
+    }
+
+    @Test
+    public void allDifferentDCTest1() {
+
+        Solver cp  = makeSolver();
+
+        IntVar [] x = new IntVar[] {makeIntVar(cp,0,1),makeIntVar(cp,0,1),makeIntVar(cp,0,3),makeIntVar(cp,0,3)};
+
+        try {
+            cp.post(allDifferent(x, Consistency.DOMAIN));
+            // {0,1} is used by x[0] and x[1]
+            assertEquals(2,x[2].getMin());
+            assertEquals(2,x[3].getMin());
+            x[2].remove(3);
+            cp.fixPoint();
+            assertTrue(x[3].isBound());
+            assertEquals(3,x[3].getMin());
+
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+
+        cp  = makeSolver();
+        x = new IntVar[] {makeIntVar(cp,0,1),makeIntVar(cp,0,1),makeIntVar(cp,0,5),makeIntVar(cp,0,1)};
+
+        try {
+            cp.post(allDifferent(x, Consistency.DOMAIN));
+            assert(false);
+        } catch (InconsistencyException e) {
+        }
+    }
+
+    @Test
+    public void allDifferentDCTest2() {
+        // every value has a support
+        java.util.Random rand = new java.util.Random(0);
+        for (int iter = 0; iter < 200; iter++) {
+            Solver cp = makeSolver();
+            IntVar [] x = new IntVar[5];
+            int [][] domains = new int[x.length][];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = makeIntVar(cp,0,6);
+                for (int v = 0; v <= 6; v++) {
+                    if (rand.nextInt(3) == 0) {
+                        try {
+                            x[i].remove(v);
+                        } catch (InconsistencyException e) {
+                        }
+                    }
+                }
+                domains[i] = new int[x[i].getSize()];
+                x[i].fillArray(domains[i]);
+            }
+            try {
+                cp.post(new AllDifferentDC(x));
+            } catch (InconsistencyException e) {
+                assertFalse(hasSupport(domains,-1,0,new int[x.length],0));
+                continue;
+            }
+            for (int i = 0; i < x.length; i++) {
+                for (int v: domains[i]) {
+                    assertEquals(hasSupport(domains,i,v,new int[x.length],0),x[i].contains(v));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void allDifferentDCTest3() {
+        // no failure during the search, the matching is kept across backtracks
+        Solver cp = makeSolver();
+        IntVar [] x = makeIntVarArray(cp,6,7);
+        try {
+            cp.post(allDifferent(x, Consistency.DOMAIN));
+            notEqual(x[0],0);
+            notEqual(x[1],6);
+            SearchStatistics stats = makeDfs(cp,firstFail(x)).start();
+            assertEquals(0,stats.nFailures);
+            assertEquals(7 * 6 * 5 * 4 * 3 * 2 - 2 * 6 * 5 * 4 * 3 * 2 + 5 * 4 * 3 * 2,stats.nSolutions);
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+    }
+
+    @Test
+    public void allDifferentDCTest4() {
+        // sparse domains spanning all the integers
+        Solver cp = makeSolver();
+        IntVar [] x = new IntVar[] {
+                makeIntVar(cp,new java.util.HashSet<>(java.util.Arrays.asList(Integer.MIN_VALUE,Integer.MAX_VALUE))),
+                makeIntVar(cp,new java.util.HashSet<>(java.util.Arrays.asList(Integer.MIN_VALUE,Integer.MAX_VALUE))),
+                makeIntVar(cp,new java.util.HashSet<>(java.util.Arrays.asList(Integer.MIN_VALUE,0,Integer.MAX_VALUE)))};
+        try {
+            cp.post(allDifferent(x, Consistency.DOMAIN));
+            assertTrue(x[2].isBound());
+            assertEquals(0,x[2].getMin());
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+    }
+
+    @Test
+    public void allDifferentDCTest5() {
+        // long augmenting path and deep components: x[i] in {i,i+1}
+        int n = 100000;
+        Solver cp = makeSolver();
+        IntVar [] x = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = makeIntVar(cp,i,i + 1);
+        }
+        try {
+            cp.post(allDifferent(x, Consistency.DOMAIN));
+            x[0].remove(0);
+            cp.fixPoint();
+            for (int i = 0; i < n; i++) {
+                assertTrue(x[i].isBound());
+                assertEquals(i + 1,x[i].getMin());
+            }
+        } catch (InconsistencyException e) {
+            assert(false);
+        }
+    }
+
+    /**
+     * @return true if there is an assignment of different values
+     *         to the variables k..domains.length-1 with values[i] in domains[i] and values[i0] = v0
+     */
+    private static boolean hasSupport(int [][] domains, int i0, int v0, int [] values, int k) {
+        if (k == domains.length) return true;
+        for (int v: domains[k]) {
+            if (k == i0 && v != v0) continue;
+            boolean used = false;
+            for (int l = 0; l < k; l++) used |= values[l] == v;
+            if (!used) {
+                values[k] = v;
+                if (hasSupport(domains,i0,v0,values,k + 1)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if there is an assignment of different values
+     *         to the variables k..min.length-1 with values[i] in [min[i],max[i]]
+     */
+    private static boolean hasSupport(int [] min, int [] max, int [] values, int k) {
+        if (k == min.length) return true;
+        for (int v = min[k]; v <= max[k]; v++) {
+            boolean used = false;
+            for (int l = 0; l < k; l++) used |= values[l] == v;
+            if (!used) {
+                values[k] = v;
+                if (hasSupport(min,max,values,k + 1)) return true;
+            }
+        }
+        return false;
+    }
+
 }
@@ -23,6 +23,7 @@ import minicp.util.NotImplementedException;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static minicp.cp.Heuristics.*;
@@ -255,7 +256,47 @@ public class SumTest {
         assertTrue(failed);
     }
 
+    @Test
+    public void sum11() {
+        // the values removed from the interior of a sum are not ignored
+        try {
+            Solver cp = makeSolver();
+            IntVar[] x = makeIntVarArray(cp, 2, 3);
+            IntVar s = sum(x);
+            notEqual(s, 2);
+            SearchStatistics stats = makeDfs(cp, firstFail(x)).start();
+            assertEquals(6, stats.nSolutions);
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
 
-
+    @Test
+    public void sum12() {
+        // a wide sum keeps only its bounds until a value is removed from its interior
+        try {
+            Solver cp = makeSolver();
+            IntVar[] x = makeIntVarArray(cp, 2, 40001);
+            IntVar s = sum(x);
+            assertEquals(80001, s.getSize());
+
+            cp.push();
+            x[0].removeAbove(2);
+            x[1].removeAbove(2);
+            cp.fixPoint();
+            assertEquals(4, s.getMax());
+            notEqual(s, 2);
+            assertFalse(s.contains(2));
+            assertEquals(4, s.getSize());
+            SearchStatistics stats = makeDfs(cp, firstFail(x)).start();
+            assertEquals(6, stats.nSolutions);
+            cp.pop();
+
+            assertEquals(80001, s.getSize());
+            assertTrue(s.contains(2));
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
 
 }
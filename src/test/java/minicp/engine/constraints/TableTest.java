@@ -104,6 +104,38 @@ public class TableTest {
     }
 
 
+    @Test
+    public void randomTestLargeTables() {
+        // domains not starting at 0, tuples with values outside of the domains
+        // and enough tuples to use both the delta and the reset based updates
+        Random rand = new Random(4242);
+
+        for (int i = 0; i < 20; i++) {
+            int[][] tuples1 = randomTuples(rand, 4, 400, -4, 8);
+            int[][] tuples2 = randomTuples(rand, 4, 400, -3, 7);
+
+            SearchStatistics[] stats = new SearchStatistics[2];
+            for (int k = 0; k < 2; k++) {
+                try {
+                    Solver cp = makeSolver();
+                    IntVar[] x = makeIntVarArray(cp, 6, j -> makeIntVar(cp, -3, 6));
+                    BiFunction<IntVar[], int[][], Constraint> tc = getAlgos().get(k);
+                    cp.post(tc.apply(new IntVar[]{x[0], x[1], x[2], x[3]}, tuples1));
+                    cp.post(tc.apply(new IntVar[]{x[2], x[3], x[4], x[5]}, tuples2));
+                    stats[k] = makeDfs(cp, firstFail(x)).start();
+                } catch (InconsistencyException e) {
+                    stats[k] = null;
+                }
+            }
+            assertTrue((stats[0] == null) == (stats[1] == null));
+            if (stats[0] != null) {
+                assertEquals(stats[0].nSolutions, stats[1].nSolutions);
+                assertEquals(stats[0].nFailures, stats[1].nFailures);
+                assertEquals(stats[0].nNodes, stats[1].nNodes);
+            }
+        }
+    }
+
     public void testTable(BiFunction<IntVar[], int[][], Constraint> tc, int[][] t1, int[][] t2, int[][] t3) {
 
         SearchStatistics statsDecomp;
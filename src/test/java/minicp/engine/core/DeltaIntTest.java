@@ -0,0 +1,133 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.util.InconsistencyException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static minicp.cp.Factory.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class DeltaIntTest {
+
+    private static Set<Integer> toSet(int [] values, int n) {
+        Set<Integer> set = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            set.add(values[i]);
+        }
+        return set;
+    }
+
+    private static class DeltaCollector extends Constraint {
+        final IntVar x;
+        DeltaInt delta;
+        Set<Integer> removed = new HashSet<>();
+
+        DeltaCollector(IntVar x) {
+            super(x.getSolver());
+            this.x = x;
+        }
+
+        @Override
+        public void post() throws InconsistencyException {
+            delta = x.delta(this);
+            x.propagateOnDomainChange(this);
+        }
+
+        @Override
+        public void propagate() throws InconsistencyException {
+            int [] values = new int[delta.size()];
+            removed = toSet(values, delta.fillArray(values));
+        }
+    }
+
+    @Test
+    public void testDelta() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,-5,5);
+        DeltaCollector c = new DeltaCollector(x);
+
+        try {
+            cp.post(c);
+            assertFalse(c.delta.changed());
+
+            x.remove(0);
+            x.remove(3);
+            assertEquals(2,c.delta.size());
+            cp.fixPoint();
+            assertEquals(new HashSet<>(Arrays.asList(0,3)),c.removed);
+            assertFalse(c.delta.changed());
+
+            cp.push();
+
+            x.removeAbove(2);
+            x.removeBelow(-3);
+            assertTrue(c.delta.minChanged());
+            assertTrue(c.delta.maxChanged());
+            cp.fixPoint();
+            assertEquals(new HashSet<>(Arrays.asList(-5,-4,4,5)),c.removed);
+
+            x.assign(-1);
+            cp.fixPoint();
+            assertEquals(new HashSet<>(Arrays.asList(-3,-2,1,2)),c.removed);
+
+            cp.pop();
+
+            // the snapshot is restored with the domain
+            assertEquals(9,c.delta.oldSize());
+            assertFalse(c.delta.changed());
+            x.remove(-5);
+            cp.fixPoint();
+            assertEquals(new HashSet<>(Arrays.asList(-5)),c.removed);
+
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    @Test
+    public void testDeltaViews() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,0,9);
+        DeltaCollector offset = new DeltaCollector(plus(x,3));
+        DeltaCollector opposite = new DeltaCollector(minus(x));
+        DeltaCollector times = new DeltaCollector(mul(x,2));
+
+        try {
+            cp.post(offset);
+            cp.post(opposite);
+            cp.post(times);
+
+            x.remove(5);
+            x.removeAbove(7);
+            cp.fixPoint();
+
+            assertEquals(new HashSet<>(Arrays.asList(8,11,12)),offset.removed);
+            assertEquals(new HashSet<>(Arrays.asList(-5,-8,-9)),opposite.removed);
+            assertEquals(new HashSet<>(Arrays.asList(10,16,18)),times.removed);
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+}
@@ -15,6 +15,7 @@
 
 package minicp.engine.core;
 
+import minicp.reversible.Copier;
 import minicp.util.InconsistencyException;
 import minicp.util.NotImplementedException;
 import org.junit.Test;
@@ -25,6 +26,7 @@ import java.util.Set;
 
 import static minicp.cp.Factory.makeIntVar;
 import static minicp.cp.Factory.makeSolver;
+import static minicp.cp.Factory.sum;
 import static org.junit.Assert.*;
 
 
@@ -63,8 +65,12 @@ public class DomainTest {
     @Test
     public void testDomain1() throws InconsistencyException {
         Solver cp  = makeSolver();
+        testDomain1(new SparseSetDomain(cp.getTrail(),5,10));
+        testDomain1(new BitSetDomain(cp.getTrail(),5,10));
+    }
+
+    private void testDomain1(IntDomain dom) throws InconsistencyException {
         MyDomainListener dlistener = new MyDomainListener();
-        IntDomain dom = new SparseSetDomain(cp.getTrail(),5,10);
 
         dom.removeAbove(8,dlistener);
 
@@ -99,8 +105,13 @@ public class DomainTest {
     @Test
     public void testDomain2() throws InconsistencyException {
         Solver cp  = makeSolver();
+        testDomain2(new SparseSetDomain(cp.getTrail(),5,10));
+        testDomain2(new BitSetDomain(cp.getTrail(),5,10));
+        testDomain2(new IntervalDomain(cp.getTrail(),5,10));
+    }
+
+    private void testDomain2(IntDomain dom) throws InconsistencyException {
         MyDomainListener dlistener = new MyDomainListener();
-        IntDomain dom = new SparseSetDomain(cp.getTrail(),5,10);
 
         dom.removeAllBut(7,dlistener);
 
@@ -114,8 +125,13 @@ public class DomainTest {
     @Test
     public void testDomain3() throws InconsistencyException {
         Solver cp  = makeSolver();
+        testDomain3(new SparseSetDomain(cp.getTrail(),5,10));
+        testDomain3(new BitSetDomain(cp.getTrail(),5,10));
+        testDomain3(new IntervalDomain(cp.getTrail(),5,10));
+    }
+
+    private void testDomain3(IntDomain dom) throws InconsistencyException {
         MyDomainListener dlistener = new MyDomainListener();
-        IntDomain dom = new SparseSetDomain(cp.getTrail(),5,10);
 
         dom.removeAbove(5,dlistener);
 
@@ -126,5 +142,372 @@ public class DomainTest {
 
     }
 
+    @Test
+    public void testBitSetDomain() {
+        Solver cp  = makeSolver();
+        java.util.Random rand = new java.util.Random(0);
+        for (int iter = 0; iter < 100; iter++) {
+            // several words
+            int min = rand.nextInt(20) - 10;
+            int max = min + rand.nextInt(BitSetDomain.MAX_SIZE);
+            IntDomain sparse = new SparseSetDomain(cp.getTrail(),min,max);
+            IntDomain bits = new BitSetDomain(cp.getTrail(),min,max);
+            MyDomainListener l1 = new MyDomainListener();
+            MyDomainListener l2 = new MyDomainListener();
+            cp.push();
+            try {
+                for (int k = 0; k < 200; k++) {
+                    int v = min + rand.nextInt(max - min + 1);
+                    int oldMin = bits.getMin(), oldMax = bits.getMax(), oldSize = bits.getSize();
+                    int op = rand.nextInt(4);
+                    if (op == 3) cp.push();
+                    // operations that would empty the domains
+                    else if (op == 0 && v > bits.getMax()) continue;
+                    else if (op == 1 && v < bits.getMin()) continue;
+                    else if (op == 2 && bits.getSize() == 1 && bits.contains(v)) continue;
+                    else if (op == 0) assertEquals(sparse.removeBelow(v,l1),bits.removeBelow(v,l2));
+                    else if (op == 1) assertEquals(sparse.removeAbove(v,l1),bits.removeAbove(v,l2));
+                    else {
+                        sparse.remove(v,l1);
+                        bits.remove(v,l2);
+                    }
+                    assertEquals(sparse.getSize(),bits.getSize());
+                    assertEquals(sparse.getMin(),bits.getMin());
+                    assertEquals(sparse.getMax(),bits.getMax());
+                    for (int w = min - 1; w <= max + 1; w++) {
+                        assertEquals(sparse.contains(w),bits.contains(w));
+                    }
+                    int [] d1 = new int[oldSize];
+                    int [] d2 = new int[oldSize];
+                    int n = sparse.fillDeltaArray(oldMin,oldMax,oldSize,d1);
+                    assertEquals(n,bits.fillDeltaArray(oldMin,oldMax,oldSize,d2));
+                    Arrays.sort(d1,0,n);
+                    Arrays.sort(d2,0,n);
+                    assertArrayEquals(d1,d2);
+                    assertEquals(l1.nChange,l2.nChange);
+                    assertEquals(l1.nBind,l2.nBind);
+                    assertEquals(l1.nRemoveAbove,l2.nRemoveAbove);
+                    assertEquals(l1.nRemoveBelow,l2.nRemoveBelow);
+                }
+            } catch (InconsistencyException e) {
+                fail("should not fail");
+            }
+            cp.getTrail().popUntil(-1);
+            assertEquals(max - min + 1,bits.getSize());
+            assertEquals(min,bits.getMin());
+            assertEquals(max,bits.getMax());
+        }
+    }
+
+    @Test
+    public void testRetainAll() {
+        Solver cp  = makeSolver();
+        java.util.Random rand = new java.util.Random(0);
+        for (int iter = 0; iter < 100; iter++) {
+            int min = rand.nextInt(20) - 10;
+            int max = min + rand.nextInt(BitSetDomain.MAX_SIZE);
+            int [] initial = new int[max - min + 1];
+            for (int v = min; v <= max; v++) initial[v - min] = v;
+            IntDomain [] doms = new IntDomain[] {
+                    new SparseSetDomain(cp.getTrail(),min,max),
+                    new BitSetDomain(cp.getTrail(),min,max),
+                    new SparseValueDomain(cp.getTrail(),initial),
+                    new IntervalDomain(cp.getTrail(),min,max)};
+            // duplicates and values out of the domains, in no particular order
+            int count = 1 + rand.nextInt(10);
+            int [] kept = new int[count + 2];
+            for (int k = 0; k < count; k++) {
+                kept[k] = min - 5 + rand.nextInt(max - min + 11);
+            }
+            kept[count] = Integer.MIN_VALUE;
+            kept[count + 1] = Integer.MAX_VALUE;
+            Set<Integer> expected = new HashSet<>();
+            for (int k = 0; k < count; k++) {
+                if (min <= kept[k] && kept[k] <= max) expected.add(kept[k]);
+            }
+            cp.push();
+            for (IntDomain dom : doms) {
+                MyDomainListener l = new MyDomainListener();
+                try {
+                    assertEquals(expected.size(),dom.retainAll(kept,count + 2,l));
+                    assertFalse(expected.isEmpty());
+                } catch (InconsistencyException e) {
+                    assertTrue(expected.isEmpty());
+                    continue;
+                }
+                for (int v = min - 1; v <= max + 1; v++) {
+                    assertEquals(expected.contains(v),dom.contains(v));
+                }
+                assertEquals(java.util.Collections.min(expected),(Integer) dom.getMin());
+                assertEquals(java.util.Collections.max(expected),(Integer) dom.getMax());
+                int [] delta = new int[max - min + 1];
+                assertEquals(max - min + 1 - expected.size(),dom.fillDeltaArray(min,max,max - min + 1,delta));
+                assertEquals(expected.size() == max - min + 1 ? 0 : 1,l.nChange);
+                assertEquals(expected.size() == 1 ? 1 : 0,l.nBind);
+            }
+            cp.pop();
+            for (IntDomain dom : doms) {
+                assertEquals(max - min + 1,dom.getSize());
+            }
+        }
+    }
+
+    @Test
+    public void testBitSetDomainExtremeValues() throws InconsistencyException {
+        Solver cp  = makeSolver();
+        MyDomainListener l = new MyDomainListener();
+
+        IntDomain dom = new BitSetDomain(cp.getTrail(),5,10);
+        assertEquals(5,dom.removeBelow(Integer.MIN_VALUE,l));
+        assertEquals(10,dom.removeAbove(Integer.MAX_VALUE,l));
+        assertFalse(dom.contains(Integer.MIN_VALUE));
+        assertEquals(6,dom.getSize());
+        try {
+            dom.removeAbove(Integer.MIN_VALUE,l);
+            fail("should fail");
+        } catch (InconsistencyException e) {
+        }
+
+        dom = new BitSetDomain(cp.getTrail(),-100,10);
+        try {
+            dom.removeBelow(Integer.MAX_VALUE - 10,l);
+            fail("should fail");
+        } catch (InconsistencyException e) {
+        }
+
+        dom = new BitSetDomain(cp.getTrail(),Integer.MAX_VALUE - 10,Integer.MAX_VALUE);
+        assertFalse(dom.contains(Integer.MIN_VALUE));
+        assertFalse(dom.contains(Integer.MIN_VALUE + 5));
+        assertTrue(dom.contains(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE - 10,dom.removeBelow(Integer.MIN_VALUE,l));
+        assertEquals(Integer.MAX_VALUE - 1,dom.removeAbove(Integer.MAX_VALUE - 1,l));
+        assertEquals(10,dom.getSize());
+
+        dom = new BitSetDomain(cp.getTrail(),Integer.MIN_VALUE,Integer.MIN_VALUE + 10);
+        assertFalse(dom.contains(Integer.MAX_VALUE));
+        assertEquals(Integer.MIN_VALUE + 10,dom.removeAbove(Integer.MAX_VALUE,l));
+        assertEquals(Integer.MIN_VALUE + 1,dom.removeBelow(Integer.MIN_VALUE + 1,l));
+        assertEquals(10,dom.getSize());
+    }
+
+    @Test
+    public void testBitSetDomainSiblingSnapshot() throws InconsistencyException {
+        Copier copier = new Copier();
+        MyDomainListener l = new MyDomainListener();
+        IntDomain dom = new BitSetDomain(copier,0,99);
+
+        copier.push();
+        dom.remove(5,l);
+        Copier.Snapshot snapshot = copier.saveState();
+        copier.pop();
+
+        copier.push();
+        dom.remove(6,l);
+        dom.remove(7,l);
+
+        copier.restoreState(snapshot);
+        assertEquals(99,dom.getSize());
+        int [] delta = new int[100];
+        assertEquals(1,dom.fillDeltaArray(0,99,100,delta));
+        assertEquals(5,delta[0]);
+        copier.pop();
+    }
+
+    @Test
+    public void testBitSetDomainSelected() {
+        Solver cp  = makeSolver();
+        assertTrue(new BoolVarImpl(cp).toString().equals("{0,1}"));
+        IntVar x = makeIntVar(cp,-100,100);
+        IntVar y = makeIntVar(cp,0,1000);
+        try {
+            x.removeAbove(63);
+            x.remove(0);
+            assertEquals(163,x.getSize());
+            y.removeBelow(999);
+            assertEquals(2,y.getSize());
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    @Test
+    public void testIntervalDomain() throws InconsistencyException {
+        Solver cp  = makeSolver();
+        MyDomainListener dlistener = new MyDomainListener();
+        IntervalDomain dom = new IntervalDomain(cp.getTrail(),5,10);
+
+        cp.push();
+
+        dom.remove(5,dlistener);
+        assertEquals(6, dom.getMin());
+        assertEquals(1, dlistener.nChange);
+        assertEquals(1, dlistener.nRemoveBelow);
+
+        assertEquals(8, dom.removeAbove(8,dlistener));
+        assertEquals(1, dlistener.nRemoveAbove);
+        assertFalse(dom.isExact());
+
+        int [] delta = new int[6];
+        assertEquals(3, dom.fillDeltaArray(5,10,6,delta));
+        assertEquals(new HashSet<>(Arrays.asList(5,9,10)), new HashSet<>(Arrays.asList(delta[0],delta[1],delta[2])));
+
+        cp.push();
+
+        // an interior value switches to an exact domain
+        dom.remove(7,dlistener);
+        assertTrue(dom.isExact());
+        assertEquals(2, dom.getSize());
+        assertFalse(dom.contains(7));
+        assertEquals(6, dom.getMin());
+        assertEquals(8, dom.getMax());
+        assertEquals(3, dlistener.nChange);
+        assertEquals(1, dlistener.nRemoveBelow);
+        assertEquals(1, dlistener.nRemoveAbove);
+
+        // deltas from before and after the switch
+        assertEquals(4, dom.fillDeltaArray(5,10,6,delta));
+        assertEquals(new HashSet<>(Arrays.asList(5,7,9,10)), new HashSet<>(Arrays.asList(delta[0],delta[1],delta[2],delta[3])));
+        assertEquals(1, dom.fillDeltaArray(6,8,3,delta));
+        assertEquals(7, delta[0]);
 
+        dom.removeAllBut(8,dlistener);
+        assertTrue(dom.isBound());
+        assertEquals(1, dlistener.nBind);
+
+        try {
+            dom.remove(8,dlistener);
+            fail("should fail");
+        } catch (InconsistencyException e) {
+            assertEquals(0, dom.getSize());
+        }
+
+        cp.pop();
+
+        assertFalse(dom.isExact());
+        assertEquals(3, dom.getSize());
+        assertTrue(dom.contains(7));
+
+        cp.pop();
+
+        assertEquals(5, dom.getMin());
+        assertEquals(10, dom.getMax());
+    }
+
+    @Test
+    public void testIntervalDomainBulk() throws InconsistencyException {
+        Solver cp  = makeSolver();
+        MyDomainListener dlistener = new MyDomainListener();
+        IntervalDomain dom = new IntervalDomain(cp.getTrail(),5,10);
+
+        // the result does not depend on the order of the values
+        assertEquals(2, dom.removeAll(new int[]{6,10,5,9,3}, 5, dlistener));
+        assertEquals(7, dom.getMin());
+        assertEquals(8, dom.getMax());
+        assertEquals(1, dlistener.nChange);
+        assertFalse(dom.isExact());
+
+        try {
+            dom.removeAll(new int[]{8,7}, 2, dlistener);
+            fail("should fail");
+        } catch (InconsistencyException e) {
+        }
+
+        dom = new IntervalDomain(cp.getTrail(),5,10);
+        assertEquals(4, dom.removeAll(new int[]{7,5}, 2, dlistener));
+        assertTrue(dom.isExact());
+        assertEquals(6, dom.getMin());
+        assertFalse(dom.contains(7));
+
+        assertEquals(2, dom.retainAll(new int[]{9,7,8,20}, 4, dlistener));
+        assertEquals(8, dom.getMin());
+        assertEquals(9, dom.getMax());
+
+        dom = new IntervalDomain(cp.getTrail(),5,10);
+        assertEquals(3, dom.retainAll(new int[]{9,7,8,9}, 4, dlistener));
+        assertFalse(dom.isExact());
+
+        dom = new IntervalDomain(cp.getTrail(),5,10);
+        assertEquals(2, dom.retainAll(new int[]{9,20,7}, 3, dlistener));
+        assertTrue(dom.isExact());
+        assertEquals(7, dom.getMin());
+        assertEquals(9, dom.getMax());
+        assertFalse(dom.contains(8));
+    }
+
+    @Test
+    public void testIntervalDomainSiblingSnapshot() throws InconsistencyException {
+        Copier copier = new Copier();
+        MyDomainListener dlistener = new MyDomainListener();
+        IntervalDomain dom = new IntervalDomain(copier,5,10);
+
+        copier.push();
+        dom.remove(5,dlistener);
+        Copier.Snapshot snapshot = copier.saveState();
+        copier.pop();
+
+        copier.push();
+        dom.remove(7,dlistener);
+        assertTrue(dom.isExact());
+
+        copier.restoreState(snapshot);
+        assertFalse(dom.isExact());
+        assertEquals(5, dom.getSize());
+        assertTrue(dom.contains(7));
+        copier.pop();
+
+        assertFalse(dom.isExact());
+        assertEquals(6, dom.getSize());
+    }
+
+    @Test
+    public void testWideDomainsAreExact() throws InconsistencyException {
+        Solver cp  = makeSolver();
+        IntVar x = makeIntVar(cp,0,1 << 20);
+        assertEquals((1 << 20) + 1,x.getSize());
+        x.remove(5);
+        assertFalse(x.contains(5));
+        try {
+            x.assign(5);
+            fail("should fail");
+        } catch (InconsistencyException e) {
+        }
+    }
+
+    @Test
+    public void testSparseValueDomain() throws InconsistencyException {
+        Solver cp  = makeSolver();
+        MyDomainListener dlistener = new MyDomainListener();
+        IntDomain dom = new SparseValueDomain(cp.getTrail(),new int[]{2000000,-5,0,1000000,3000000,0});
+
+        assertEquals(5, dom.getSize());
+        assertEquals(-5, dom.getMin());
+        assertEquals(3000000, dom.getMax());
+        assertTrue(dom.contains(1000000));
+        assertFalse(dom.contains(1000001));
+
+        cp.push();
+
+        assertEquals(0, dom.removeBelow(-4,dlistener));
+        assertEquals(1, dlistener.nRemoveBelow);
+        assertEquals(2000000, dom.removeAbove(2999999,dlistener));
+        assertEquals(1, dlistener.nRemoveAbove);
+        dom.remove(1000000,dlistener);
+        dom.remove(1000001,dlistener);
+        assertEquals(3, dlistener.nChange);
+
+        int [] delta = new int[5];
+        assertEquals(3, dom.fillDeltaArray(-5,3000000,5,delta));
+        assertEquals(new HashSet<>(Arrays.asList(-5,1000000,3000000)), new HashSet<>(Arrays.asList(delta[0],delta[1],delta[2])));
+
+        dom.removeAbove(1999999,dlistener);
+        assertTrue(dom.isBound());
+        assertEquals(0, dom.getMin());
+        assertEquals(1, dlistener.nBind);
+
+        cp.pop();
+
+        assertEquals(5, dom.getSize());
+        assertEquals(-5, dom.getMin());
+        assertEquals(3000000, dom.getMax());
+    }
 }
@@ -336,4 +336,133 @@ public class IntVarTest {
             e.print();
         }
     }
+
+    private static Set<Integer> values(IntVar x) {
+        int [] dest = new int[x.getSize()];
+        assertEquals(x.getSize(),x.fillArray(dest));
+        Set<Integer> set = new HashSet<>();
+        for (int v : dest) set.add(v);
+        return set;
+    }
+
+    @Test
+    public void testFillArray() {
+        Solver cp = makeSolver();
+        IntVar [] vars = new IntVar[] {
+                makeIntVar(cp,-3,5),
+                makeIntVar(cp,0,1000),
+                makeIntVar(cp,new HashSet<>(Arrays.asList(-3,0,2,4,5,1000)))
+        };
+        try {
+            for (IntVar x : vars) {
+                x.removeBelow(-3);
+                x.removeAbove(5);
+                x.remove(1);
+                x.remove(3);
+                Set<Integer> expected = values(x);
+                assertEquals(x.getSize(),expected.size());
+                for (int v = -5; v <= 1005; v++) {
+                    assertEquals(x.contains(v),expected.contains(v));
+                }
+                Set<Integer> mapped = new HashSet<>();
+                for (int v : expected) mapped.add(-(3 * v + 1));
+                assertEquals(mapped,values(minus(plus(mul(x,3),1))));
+            }
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    @Test
+    public void testRemoveAll() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,0,9);
+        int [] nEvents = new int[3];
+        x.whenDomainChange(() -> nEvents[0]++);
+        x.whenBoundsChange(() -> nEvents[1]++);
+        x.whenBind(() -> nEvents[2]++);
+
+        try {
+            cp.push();
+
+            // the views map the values to x
+            IntVar y = minus(plus(mul(x,2),1)); // y = -(2x+1)
+            y.removeAll(new int[]{-1,-3,-4,-5,-19,-17},6);
+            assertEquals(new HashSet<>(Arrays.asList(3,4,5,6,7)),toSet(x));
+            cp.fixPoint();
+            assertArrayEquals(new int[]{1,1,0},nEvents);
+
+            x.retainAll(new int[]{7,100,4,6},3);
+            assertEquals(new HashSet<>(Arrays.asList(4,7)),toSet(x));
+            cp.fixPoint();
+            assertArrayEquals(new int[]{2,2,0},nEvents);
+
+            // nothing removed, no event
+            x.removeAll(new int[]{3,5},2);
+            cp.fixPoint();
+            assertArrayEquals(new int[]{2,2,0},nEvents);
+
+            x.removeAll(new int[]{4},1);
+            cp.fixPoint();
+            assertArrayEquals(new int[]{3,3,1},nEvents);
+
+            try {
+                x.retainAll(new int[]{4},1);
+                fail("should fail");
+            } catch (InconsistencyException expected) {}
+
+            cp.pop();
+            assertEquals(10,x.getSize());
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    private static Set<Integer> toSet(IntVar x) {
+        Set<Integer> set = new HashSet<>();
+        for (int v = x.getMin(); v <= x.getMax(); v++) {
+            if (x.contains(v)) set.add(v);
+        }
+        return set;
+    }
+
+    @Test
+    public void testDeactivatedConstraintsPruned() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,10);
+        int [] nPropagate = new int[1];
+        Constraint cons = new Constraint(cp) {
+            @Override
+            public void post() throws InconsistencyException {
+                x.propagateOnDomainChange(this);
+            }
+
+            @Override
+            public void propagate() throws InconsistencyException {
+                nPropagate[0]++;
+                deactivate();
+            }
+        };
+
+        try {
+            cp.post(cons);
+            cp.push();
+            x.remove(0);
+            cp.fixPoint();
+            assertEquals(1,nPropagate[0]);
+            // removed from the subscribers of x at this point
+            x.remove(1);
+            x.remove(2);
+            cp.fixPoint();
+            assertEquals(1,nPropagate[0]);
+
+            cp.pop();
+            // active again after backtrack
+            x.remove(5);
+            cp.fixPoint();
+            assertEquals(2,nPropagate[0]);
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
 }
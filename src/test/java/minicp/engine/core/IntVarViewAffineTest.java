@@ -0,0 +1,138 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.util.InconsistencyException;
+import org.junit.Test;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static minicp.cp.Factory.*;
+import static org.junit.Assert.*;
+
+
+public class IntVarViewAffineTest {
+
+    @Test
+    public void testFlattening() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,-3,4);
+        IntVar y = minus(plus(mul(plus(x,2),-3),1),5); // y = -3x-10
+
+        assertEquals(-22,y.getMin());
+        assertEquals(-1,y.getMax());
+        assertEquals("{-22,-19,-16,-13,-10,-7,-4,-1}",y.toString());
+
+        assertSame(x,mul(x,1));
+        assertSame(x,plus(x,0));
+    }
+
+    @Test
+    public void testOverflows() {
+        Solver cp = makeSolver();
+        int min = Integer.MIN_VALUE;
+        int max = Integer.MAX_VALUE;
+        try {
+            // a*b' overflows: not composed
+            IntVar x = makeIntVar(cp,min + 1,min + 3);
+            IntVar y = plus(x,max);
+            IntVar z = mul(y,4);
+            assertEquals(0,z.getMin());
+            assertEquals(8,z.getMax());
+            z.remove(4);
+            assertFalse(x.contains(min + 2));
+
+            // a*x does not fit in an int, a*x+b does
+            x = makeIntVar(cp,min,min + 3);
+            y = minus(plus(x,1));
+            assertEquals(max - 3,y.getMin());
+            assertEquals(max,y.getMax());
+            DeltaInt delta = y.delta(new Constraint(cp) {
+                @Override
+                public void post() {}
+            });
+            y.removeAbove(max - 2);
+            int [] values = new int[4];
+            assertEquals(2,delta.fillArray(values));
+            Arrays.sort(values,0,2);
+            assertEquals(max - 1,values[0]);
+            assertEquals(max,values[1]);
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+
+        IntVar x = makeIntVar(cp,0,10);
+        try {
+            mul(x,1 << 30);
+            fail("the view does not fit in an int");
+        } catch (InvalidParameterException e) {
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random rand = new Random(0);
+        for (int iter = 0; iter < 200; iter++) {
+            Solver cp = makeSolver();
+            IntVar x = makeIntVar(cp,-10,10);
+            int a = rand.nextInt(9) - 4;
+            if (a == 0) a = 7;
+            int b = rand.nextInt(41) - 20;
+            IntVar y = plus(mul(x,a),b);
+            try {
+                for (int k = 0; k < 4; k++) {
+                    int v = rand.nextInt(121) - 60;
+                    switch (rand.nextInt(3)) {
+                        case 0: y.removeBelow(v); break;
+                        case 1: y.removeAbove(v); break;
+                        default: y.remove(v);
+                    }
+                    for (int w = -10; w <= 10; w++) {
+                        assertEquals(x.contains(w),y.contains(a * w + b));
+                    }
+                    assertEquals(x.getSize(),y.getSize());
+                    assertEquals(Math.min(a * x.getMin(),a * x.getMax()) + b,y.getMin());
+                    assertEquals(Math.max(a * x.getMin(),a * x.getMax()) + b,y.getMax());
+                }
+            } catch (InconsistencyException e) {
+                // every value of x was removed
+                assertEquals(0,x.getSize());
+            }
+        }
+    }
+
+    @Test
+    public void testBounds() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,0,10);
+        IntVar y = plus(mul(x,-3),1); // {-29,...,1}
+        try {
+            assertEquals(-5,y.removeAbove(-4));
+            assertEquals(2,x.getMin());
+            assertEquals(-26,y.removeBelow(-27));
+            assertEquals(9,x.getMax());
+            assertFalse(y.contains(-6));
+            try {
+                y.assign(-6);
+                fail("should fail");
+            } catch (InconsistencyException expected) {}
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.engine.constraints.NotEqual;
+import minicp.util.InconsistencyException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static minicp.cp.Factory.makeIntVar;
+import static minicp.cp.Factory.makeSolver;
+import static minicp.cp.Factory.notEqual;
+import static org.junit.Assert.*;
+
+
+public class SolverTest {
+
+    private static Constraint logging(Solver cp, IntVar x, int priority, String name, List<String> log) {
+        return new Constraint(cp) {
+            @Override
+            public int getPriority() {
+                return priority;
+            }
+
+            @Override
+            public void post() throws InconsistencyException {
+                x.propagateOnDomainChange(this);
+            }
+
+            @Override
+            public void propagate() throws InconsistencyException {
+                log.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void testPriorities() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,10);
+        List<String> log = new ArrayList<>();
+
+        try {
+            cp.post(logging(cp,x,Constraint.PRIORITY_SLOW,"slow",log));
+            cp.post(logging(cp,x,Constraint.PRIORITY_MEDIUM,"medium",log));
+            cp.post(logging(cp,x,Constraint.PRIORITY_FAST,"fast1",log));
+            cp.post(logging(cp,x,Constraint.PRIORITY_FAST,"fast2",log));
+
+            x.remove(3);
+            cp.fixPoint();
+            assertEquals(Arrays.asList("fast1","fast2","medium","slow"),log);
+
+            assertEquals(2,cp.getNumberOfPropagations(Constraint.PRIORITY_FAST));
+            assertEquals(1,cp.getNumberOfPropagations(Constraint.PRIORITY_MEDIUM));
+            assertEquals(1,cp.getNumberOfPropagations(Constraint.PRIORITY_SLOW));
+            assertEquals(4,cp.getNumberOfPropagations());
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    @Test
+    public void testSlowDeferred() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,10);
+        List<String> log = new ArrayList<>();
+
+        try {
+            cp.post(logging(cp,x,Constraint.PRIORITY_SLOW,"slow",log));
+            // a cheap constraint removing values several times
+            cp.post(new Constraint(cp) {
+                @Override
+                public int getPriority() {
+                    return PRIORITY_FAST;
+                }
+
+                @Override
+                public void post() throws InconsistencyException {
+                    x.propagateOnBoundChange(this);
+                }
+
+                @Override
+                public void propagate() throws InconsistencyException {
+                    if (x.getMax() > 5) x.removeAbove(x.getMax() - 1);
+                }
+            });
+
+            log.clear();
+            x.removeAbove(8);
+            cp.fixPoint();
+            assertEquals(5,x.getMax());
+            // the slow constraint runs once, after the fast one reached its fix point
+            assertEquals(Arrays.asList("slow"),log);
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    @Test
+    public void testProfiling() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,5);
+        IntVar y = makeIntVar(cp,5);
+        IntVar z = makeIntVar(cp,5);
+
+        try {
+            cp.post(notEqual(x,y));
+            cp.post(notEqual(x,z));
+            Profiler profiler = cp.enableProfiling();
+            assertSame(profiler,cp.getProfiler());
+
+            cp.push();
+            // the removal done by the search is not attributed to a constraint
+            x.assign(2);
+            cp.fixPoint();
+            assertEquals(2,profiler.getConstraintStats().size());
+            for (Profiler.Stats s : profiler.getConstraintStats()) {
+                assertEquals(1,s.getCalls());
+                assertEquals(0,s.getFailures());
+                assertEquals(1,s.getPruned());
+            }
+            Collection<Profiler.Stats> classStats = profiler.getClassStats();
+            assertEquals(1,classStats.size());
+            Profiler.Stats notEqual = classStats.iterator().next();
+            assertEquals(NotEqual.class.getName(),notEqual.getName());
+            assertEquals(2,notEqual.getCalls());
+            assertEquals(2,notEqual.getPruned());
+            cp.pop();
+
+            cp.push();
+            y.assign(1);
+            z.assign(1);
+            x.assign(1);
+            try {
+                cp.fixPoint();
+                fail("should fail");
+            } catch (InconsistencyException expected) {}
+            cp.pop();
+
+            // the second constraint is not propagated after the failure
+            notEqual = profiler.getClassStats().iterator().next();
+            assertEquals(3,notEqual.getCalls());
+            assertEquals(1,notEqual.getFailures());
+            assertTrue(profiler.report(5).contains(NotEqual.class.getName()));
+
+            profiler.reset();
+            assertTrue(profiler.getConstraintStats().isEmpty());
+            cp.disableProfiling();
+            assertNull(cp.getProfiler());
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    @Test
+    public void testRuntimeExceptionDuringFixPoint() {
+        Solver cp = makeSolver();
+        IntVar x = makeIntVar(cp,10);
+        List<String> log = new ArrayList<>();
+        boolean [] throwing = new boolean[]{true};
+
+        try {
+            cp.post(logging(cp,x,Constraint.PRIORITY_SLOW,"slow",log));
+            Constraint thrower = new Constraint(cp) {
+                @Override
+                public void post() throws InconsistencyException {
+                    x.propagateOnDomainChange(this);
+                }
+
+                @Override
+                public void propagate() throws InconsistencyException {
+                    if (throwing[0]) throw new IllegalStateException();
+                }
+            };
+            cp.post(thrower);
+            Profiler profiler = cp.enableProfiling();
+
+            x.remove(3);
+            try {
+                cp.fixPoint();
+                fail("should throw");
+            } catch (IllegalStateException expected) {}
+            assertTrue(log.isEmpty());
+            assertEquals(1,profiler.getConstraintStats().size());
+            assertEquals(1,profiler.getConstraintStats().iterator().next().getFailures());
+
+            // the queues were emptied and the constraints can be scheduled again
+            throwing[0] = false;
+            cp.fixPoint();
+            assertTrue(log.isEmpty());
+            x.remove(4);
+            cp.fixPoint();
+            assertEquals(Arrays.asList("slow"),log);
+            assertEquals(2,profiler.getConstraintStats().size());
+            for (Profiler.Stats s : profiler.getConstraintStats()) {
+                assertEquals(0,s.getPruned());
+            }
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+}
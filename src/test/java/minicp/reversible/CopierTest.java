@@ -0,0 +1,202 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import minicp.search.SearchStatistics;
+import minicp.util.InconsistencyException;
+import org.junit.Test;
+
+import static minicp.cp.Factory.*;
+import static minicp.cp.Heuristics.firstFail;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class CopierTest {
+
+    @Test
+    public void testPushPop() {
+        Copier copier = new Copier();
+        ReversibleInt a = new ReversibleInt(copier,5);
+        ReversibleBool b = new ReversibleBool(copier,true);
+        ReversibleSparseSet set = new ReversibleSparseSet(copier,10);
+
+        copier.push();
+
+        a.setValue(7);
+        b.setValue(false);
+        set.remove(3);
+        set.remove(0);
+
+        copier.push();
+
+        a.setValue(9);
+        set.removeAllBut(5);
+        new ReversibleInt(copier,1);
+        // a, b, the set and its state tuple, the new int
+        assertEquals(5,copier.getNumberOfRegistered());
+
+        copier.pop();
+
+        assertEquals(7,a.getValue());
+        assertFalse(b.getValue());
+        assertEquals(8,set.getSize());
+        assertEquals(1,set.getMin());
+        // the int created at the popped level is forgotten
+        assertEquals(4,copier.getNumberOfRegistered());
+
+        copier.pop();
+
+        assertEquals(5,a.getValue());
+        assertTrue(b.getValue());
+        assertEquals(10,set.getSize());
+        assertEquals(-1,copier.getLevel());
+    }
+
+    @Test
+    public void testSnapshot() {
+        Copier copier = new Copier();
+        ReversibleInt a = new ReversibleInt(copier,5);
+
+        copier.push();
+        a.setValue(6);
+        Copier.Snapshot snapshot = copier.saveState();
+        a.setValue(7);
+        copier.pop();
+
+        assertEquals(5,a.getValue());
+
+        copier.push();
+        copier.restoreState(snapshot);
+        assertEquals(6,a.getValue());
+        copier.pop();
+
+        assertEquals(5,a.getValue());
+    }
+
+    @Test
+    public void testSiblingSnapshot() {
+        Solver cp = makeSolver(new Copier());
+        Copier copier = (Copier) cp.getTrail();
+        IntVar x = makeIntVar(cp,0,299);
+        ReversibleIntMap map = new ReversibleIntMap(copier);
+        ReversibleSparseBitSet bits = new ReversibleSparseBitSet(copier,200);
+        ReversibleSparseBitSet.StaticBitSet word1 = bits.new StaticBitSet();
+        word1.set(70);
+
+        try {
+            copier.push();
+            x.remove(299);
+            map.put(1,10);
+            bits.clearMask();
+            for (int i = 64; i < 200; i++) word1.set(i);
+            bits.addToMask(word1);
+            bits.intersectWithMask();
+            Copier.Snapshot snapshot = copier.saveState();
+            copier.pop();
+
+            // sibling of the saved node
+            copier.push();
+            x.remove(0);
+            map.put(2,20);
+            bits.clearMask();
+            ReversibleSparseBitSet.StaticBitSet first = bits.new StaticBitSet();
+            for (int i = 0; i < 64; i++) first.set(i);
+            bits.addToMask(first);
+            bits.intersectWithMask();
+
+            copier.restoreState(snapshot);
+
+            assertTrue(x.contains(0));
+            assertFalse(x.contains(299));
+            assertEquals(0,x.getMin());
+            assertEquals(298,x.getMax());
+            assertEquals(299,x.getSize());
+            x.removeAbove(150);
+            assertEquals(150,x.getMax());
+
+            assertTrue(map.containsKey(1));
+            assertFalse(map.containsKey(2));
+            assertEquals(10,map.get(1,-1));
+            assertEquals(1,map.size());
+
+            assertEquals(136,bits.cardinality());
+            assertFalse(bits.contains(3));
+            assertTrue(bits.contains(70));
+            assertTrue(bits.intersects(word1));
+            copier.pop();
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    @Test
+    public void testSiblingSnapshotSum() {
+        Solver cp = makeSolver(new Copier());
+        Copier copier = (Copier) cp.getTrail();
+        IntVar [] x = makeIntVarArray(cp,3,3);
+
+        try {
+            cp.post(sum(x,3));
+
+            copier.push();
+            equal(x[0],0);
+            Copier.Snapshot snapshot = copier.saveState();
+            copier.pop();
+
+            copier.push();
+            equal(x[2],0);
+            equal(x[1],2);
+
+            copier.restoreState(snapshot);
+            equal(x[1],1);
+            cp.fixPoint();
+            assertTrue(x[2].isBound());
+            assertEquals(2,x[2].getMin());
+            copier.pop();
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+    @Test
+    public void testSearch() {
+        Solver cp = makeSolver(new Copier());
+        IntVar [] q = makeIntVarArray(cp,6,6);
+
+        try {
+            for (int i = 0; i < q.length; i++) {
+                for (int j = i + 1; j < q.length; j++) {
+                    cp.post(notEqual(q[i],q[j]));
+                    cp.post(notEqual(q[i],q[j],j-i));
+                    cp.post(notEqual(q[i],q[j],i-j));
+                }
+            }
+            SearchStatistics stats = makeDfs(cp,firstFail(q)).start();
+            assertEquals(4,stats.nSolutions);
+            for (int i = 0; i < q.length; i++) {
+                assertEquals(6,q[i].getSize());
+            }
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        }
+    }
+
+}
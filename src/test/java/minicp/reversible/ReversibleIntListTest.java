@@ -0,0 +1,69 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ReversibleIntListTest {
+
+    @Test
+    public void testReversibleIntList() {
+        Trail trail = new Trail();
+        ReversibleIntList list = new ReversibleIntList(trail,2);
+
+        list.add(3);
+        list.add(4);
+
+        trail.push();
+
+        list.set(0,5);
+        list.set(0,6);
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        list.set(50,-1);
+
+        assertEquals(102,list.size());
+        assertEquals(-1,list.get(50));
+
+        trail.push();
+
+        list.set(1,7);
+        list.add(8);
+
+        assertEquals(8,list.get(102));
+
+        trail.pop();
+
+        assertEquals(102,list.size());
+        assertEquals(4,list.get(1));
+        assertEquals(99,list.get(101));
+
+        trail.pop();
+
+        assertEquals(2,list.size());
+        assertEquals(3,list.get(0));
+        assertEquals(4,list.get(1));
+
+        int [] dest = new int[2];
+        assertEquals(2,list.fillArray(dest));
+        assertEquals(3,dest[0]);
+    }
+
+}
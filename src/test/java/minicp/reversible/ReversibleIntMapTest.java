@@ -0,0 +1,94 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class ReversibleIntMapTest {
+
+    @Test
+    public void testReversibleIntMap() {
+        Trail trail = new Trail();
+        ReversibleIntMap map = new ReversibleIntMap(trail);
+
+        map.put(1,10);
+        map.put(-5,50);
+
+        trail.push();
+
+        map.put(1,11);
+        map.put(7,70);
+
+        assertEquals(11,map.get(1,0));
+        assertEquals(70,map.get(7,0));
+        assertEquals(3,map.size());
+
+        trail.pop();
+
+        assertEquals(10,map.get(1,0));
+        assertFalse(map.containsKey(7));
+        assertEquals(-1,map.get(7,-1));
+        assertEquals(2,map.size());
+        assertEquals(-5,map.keyAt(1));
+        assertEquals(50,map.valueAt(1));
+    }
+
+    @Test
+    public void testRandom() {
+        Random rand = new Random(0);
+        Trail trail = new Trail();
+        ReversibleIntMap map = new ReversibleIntMap(trail,1);
+
+        List<Map<Integer,Integer>> saved = new ArrayList<>();
+        Map<Integer,Integer> expected = new HashMap<>();
+
+        for (int step = 0; step < 20000; step++) {
+            int action = rand.nextInt(10);
+            if (action == 0) {
+                trail.push();
+                saved.add(new HashMap<>(expected));
+            } else if (action == 1 && !saved.isEmpty()) {
+                trail.pop();
+                expected = saved.remove(saved.size() - 1);
+            } else {
+                int key = rand.nextInt(200) - 100;
+                int value = rand.nextInt();
+                map.put(key,value);
+                expected.put(key,value);
+            }
+            assertEquals(expected.size(),map.size());
+            for (int key = -100; key < 100; key++) {
+                assertEquals(expected.containsKey(key),map.containsKey(key));
+                if (expected.containsKey(key)) {
+                    assertEquals((int) expected.get(key),map.get(key,0));
+                }
+            }
+        }
+        assertTrue(map.size() <= 200);
+    }
+
+}
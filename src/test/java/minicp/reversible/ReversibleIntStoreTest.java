@@ -0,0 +1,99 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ReversibleIntStoreTest {
+
+    @Test
+    public void testReversibleIntStore() {
+        Trail trail = new Trail();
+        ReversibleIntStore store = new ReversibleIntStore(trail,2);
+
+        int a = store.makeInt(5);
+        int b = store.makeInts(10,-1);
+
+        assertEquals(11,store.size());
+        assertEquals(5,store.getValue(a));
+
+        trail.push();
+
+        store.setValue(a,7);
+        store.setValue(a,8);
+        for (int i = 0; i < 10; i++) {
+            store.increment(b + i);
+        }
+        int c = store.makeInt(Integer.MIN_VALUE);
+
+        trail.push();
+
+        store.setValue(a,9);
+        store.setValue(b + 3,Integer.MAX_VALUE);
+        store.setValue(c,-3);
+
+        trail.pop();
+
+        assertEquals(8,store.getValue(a));
+        assertEquals(0,store.getValue(b + 3));
+        assertEquals(Integer.MIN_VALUE,store.getValue(c));
+
+        trail.pop();
+
+        assertEquals(5,store.getValue(a));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(-1,store.getValue(b + i));
+        }
+    }
+
+    @Test
+    public void testSetAtCreationLevel() {
+        Trail trail = new Trail();
+        ReversibleIntStore store = new ReversibleIntStore(trail);
+
+        trail.push();
+        int a = store.makeInts(3,4);
+        store.setValue(a + 1,5);
+        trail.push();
+        store.setValue(a + 1,6);
+        trail.pop();
+        assertEquals(5,store.getValue(a + 1));
+        trail.pop();
+        assertEquals(4,store.getValue(a + 1));
+    }
+
+    @Test
+    public void testCopier() {
+        Copier copier = new Copier();
+        ReversibleIntStore store = new ReversibleIntStore(copier);
+
+        int a = store.makeInt(5);
+
+        copier.push();
+
+        store.setValue(a,6);
+        int b = store.makeInt(1);
+        store.setValue(b,2);
+
+        copier.pop();
+
+        assertEquals(5,store.getValue(a));
+    }
+
+}
@@ -229,4 +229,39 @@ public class ReversibleIntTest {
 
     }
 
+    @Test
+    public void testDeepTrail() {
+
+        Trail trail = new Trail();
+        ReversibleInt [] a = new ReversibleInt[100];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = new ReversibleInt(trail,0);
+        }
+        int [] entry = new int[]{0};
+
+        // more levels and entries than the initial capacity of the trail
+        for (int level = 1; level <= 200; level++) {
+            trail.push();
+            for (int i = 0; i < a.length; i++) {
+                a[i].setValue(level);
+            }
+            trail.pushOnTrail(() -> entry[0]--);
+            entry[0]++;
+        }
+
+        trail.popUntil(49);
+
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(50,a[i].getValue());
+        }
+        assertEquals(50,entry[0]);
+
+        trail.popAll();
+
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(0,a[i].getValue());
+        }
+        assertEquals(0,entry[0]);
+    }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ReversibleIntTupleTest {
+
+    @Test
+    public void testSingleEntryPerLevel() {
+        Trail trail = new Trail();
+        ReversibleIntTuple t = new ReversibleIntTuple(trail,1,2,3);
+        assertEquals(3,t.arity());
+
+        trail.push();
+        t.set(0,10);
+        t.set(1,20);
+        t.set(2,30);
+        t.set(0,11);
+        assertEquals(1,trail.getSize());
+
+        // deep enough such that the saved values have to grow
+        for (int level = 0; level < 10; level++) {
+            trail.push();
+            t.set(level % 3,level);
+        }
+        assertEquals(11,trail.getSize());
+
+        trail.popUntil(0);
+        assertEquals(11,t.get(0));
+        assertEquals(20,t.get(1));
+        assertEquals(30,t.get(2));
+
+        trail.pop();
+        assertEquals(1,t.get(0));
+        assertEquals(2,t.get(1));
+        assertEquals(3,t.get(2));
+    }
+
+    @Test
+    public void testSetAfterPop() {
+        Trail trail = new Trail();
+        ReversibleIntTuple t = new ReversibleIntTuple(trail,0,0);
+
+        trail.push();
+        t.set(0,1);
+        trail.push();
+        t.set(1,2);
+        trail.pop();
+        t.set(1,3);
+        assertEquals(1,t.get(0));
+        assertEquals(3,t.get(1));
+        trail.pop();
+        assertEquals(0,t.get(0));
+        assertEquals(0,t.get(1));
+    }
+
+    @Test
+    public void testCopier() {
+        Copier copier = new Copier();
+        ReversibleIntTuple t = new ReversibleIntTuple(copier,4,5);
+
+        copier.push();
+        t.set(0,6);
+        t.set(1,7);
+        assertEquals(0,copier.getSize());
+        copier.pop();
+        assertEquals(4,t.get(0));
+        assertEquals(5,t.get(1));
+    }
+}
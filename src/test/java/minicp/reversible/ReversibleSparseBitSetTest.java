@@ -0,0 +1,108 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class ReversibleSparseBitSetTest {
+
+    @Test
+    public void testIntersectWithMask() {
+        Trail trail = new Trail();
+        ReversibleSparseBitSet set = new ReversibleSparseBitSet(trail,200);
+
+        assertEquals(200,set.cardinality());
+        assertEquals(4,set.getNumberOfWords());
+
+        ReversibleSparseBitSet.StaticBitSet even = set.new StaticBitSet();
+        ReversibleSparseBitSet.StaticBitSet low = set.new StaticBitSet();
+        for (int i = 0; i < 200; i += 2) even.set(i);
+        for (int i = 0; i < 10; i++) low.set(i);
+
+        trail.push();
+
+        set.clearMask();
+        set.addToMask(even);
+        assertTrue(set.intersectWithMask());
+        assertEquals(100,set.cardinality());
+        assertFalse(set.contains(3));
+
+        trail.push();
+
+        set.clearMask();
+        set.addToMask(low);
+        set.intersectWithMask();
+        assertEquals(5,set.cardinality());
+        assertEquals(0,set.intersectIndex(even));
+        assertTrue(set.intersects(low,0));
+        assertFalse(set.intersects(even,1));
+
+        set.clearMask();
+        set.addToMask(low);
+        set.reverseMask();
+        set.intersectWithMask();
+        assertTrue(set.isEmpty());
+        assertFalse(set.intersects(even));
+
+        trail.pop();
+
+        assertFalse(set.isEmpty());
+        assertEquals(100,set.cardinality());
+
+        trail.pop();
+
+        assertEquals(200,set.cardinality());
+        assertTrue(set.contains(199));
+    }
+
+    @Test
+    public void testWordsTrailedOncePerLevel() {
+        Trail trail = new Trail();
+        ReversibleSparseBitSet set = new ReversibleSparseBitSet(trail,200);
+        trail.push();
+        for (int k = 199; k >= 100; k--) {
+            ReversibleSparseBitSet.StaticBitSet below = set.new StaticBitSet();
+            for (int i = 0; i < k; i++) below.set(i);
+            set.clearMask();
+            set.addToMask(below);
+            set.intersectWithMask();
+        }
+        assertEquals(100,set.cardinality());
+        // words 1, 2 and 3, and the limit
+        assertEquals(4,trail.getLevelSize(0));
+        trail.pop();
+        assertEquals(200,set.cardinality());
+    }
+
+    @Test
+    public void testNoChange() {
+        Trail trail = new Trail();
+        ReversibleSparseBitSet set = new ReversibleSparseBitSet(trail,64);
+        ReversibleSparseBitSet.StaticBitSet all = set.new StaticBitSet();
+        for (int i = 0; i < 64; i++) all.set(i);
+
+        set.clearMask();
+        set.addToMask(all);
+        assertFalse(set.intersectWithMask());
+        assertEquals(64,set.cardinality());
+    }
+
+}
@@ -229,4 +229,51 @@ public class ReversibleSparseSetTest {
             e.print();
         }
     }
+
+    @Test
+    public void testBulkRemove() {
+
+        Trail trail = new Trail();
+        ReversibleSparseSet set = new ReversibleSparseSet(trail,100000);
+
+        trail.push();
+
+        // holes such that the bounds have to be searched
+        for (int v = 1000; v < 2000; v++) set.remove(v);
+        for (int v = 90000; v < 99000; v++) set.remove(v);
+
+        assertEquals(2000,set.removeBelow(1010));
+        assertEquals(89999,set.removeAbove(98500));
+        assertEquals(89999 - 2000 + 1,set.getSize());
+
+        trail.push();
+
+        // larger than the size of the set: the values of the set are scanned
+        assertEquals(50000,set.removeBelow(50000));
+        assertEquals(50010,set.removeAbove(50010));
+        assertEquals(11,set.getSize());
+        for (int v = 50000; v <= 50010; v++) {
+            assertTrue(set.contains(v));
+        }
+        set.remove(50000);
+        set.remove(50010);
+        assertEquals(50001,set.getMin());
+        assertEquals(50009,set.getMax());
+
+        assertEquals(Integer.MAX_VALUE,set.removeBelow(60000));
+        assertTrue(set.isEmpty());
+
+        trail.pop();
+
+        assertEquals(2000,set.getMin());
+        assertEquals(89999,set.getMax());
+        assertFalse(set.contains(1999));
+        assertTrue(set.contains(50010));
+
+        trail.pop();
+
+        assertEquals(100000,set.getSize());
+        assertEquals(0,set.getMin());
+        assertEquals(99999,set.getMax());
+    }
 }
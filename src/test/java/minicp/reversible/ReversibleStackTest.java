@@ -0,0 +1,62 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ReversibleStackTest {
+
+    @Test
+    public void testReversibleStack() {
+        Trail trail = new Trail();
+        ReversibleStack<Integer> stack = new ReversibleStack<>(trail);
+
+        stack.push(0);
+        stack.push(1);
+
+        trail.push();
+
+        for (int i = 2; i < 1000; i++) {
+            stack.push(i);
+        }
+        assertEquals(1000,stack.size());
+        assertEquals(999,(int) stack.get(999));
+
+        trail.pop();
+
+        assertEquals(2,stack.size());
+
+        trail.push();
+
+        // overwrites the slots freed by the backtrack
+        stack.push(-2);
+        stack.push(-3);
+        assertEquals(4,stack.size());
+        assertEquals(1,(int) stack.get(1));
+        assertEquals(-2,(int) stack.get(2));
+        assertEquals(-3,(int) stack.get(3));
+
+        trail.pop();
+
+        assertEquals(2,stack.size());
+        assertEquals(0,(int) stack.get(0));
+        assertEquals(1,(int) stack.get(1));
+    }
+
+}
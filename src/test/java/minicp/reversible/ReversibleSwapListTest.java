@@ -0,0 +1,153 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class ReversibleSwapListTest {
+
+    private static Set<Integer> content(ReversibleSwapList<Integer> list) {
+        Set<Integer> set = new HashSet<>();
+        for (int i = 0; i < list.size(); i++) {
+            set.add(list.get(i));
+        }
+        return set;
+    }
+
+    @Test
+    public void testAddRemove() {
+        Trail trail = new Trail();
+        ReversibleSwapList<Integer> list = new ReversibleSwapList<>(trail);
+        list.add(1);
+        list.add(2);
+        list.add(3);
+
+        trail.push();
+        list.remove(0);
+        // added after a removal: the removed element must not be overwritten
+        list.add(4);
+        assertEquals(3,list.size());
+        assertEquals(new HashSet<>(Arrays.asList(2,3,4)),content(list));
+
+        trail.pop();
+        assertEquals(3,list.size());
+        assertEquals(1,(int) list.get(0));
+        assertEquals(2,(int) list.get(1));
+        assertEquals(3,(int) list.get(2));
+    }
+
+    @Test
+    public void testShrink() {
+        for (Trail trail : new Trail[]{new Trail(), new Copier()}) {
+            ReversibleSwapList<Integer> list = new ReversibleSwapList<>(trail);
+            list.add(0);
+            list.add(1);
+
+            trail.push();
+            for (int i = 2; i < 1000; i++) {
+                list.add(i);
+            }
+            list.remove(0);
+            assertEquals(1024,list.capacity());
+            trail.pop();
+
+            trail.push();
+            for (int i = 0; i < 10; i++) {
+                list.add(-i);
+                list.remove(list.size() - 1);
+            }
+            assertTrue(list.capacity() <= 16);
+            list.add(-1);
+            assertEquals(new HashSet<>(Arrays.asList(0,1,-1)),content(list));
+            trail.pop();
+
+            assertEquals(2,list.size());
+            assertEquals(0,(int) list.get(0));
+            assertEquals(1,(int) list.get(1));
+        }
+    }
+
+    @Test
+    public void testSiblingSnapshot() {
+        Copier copier = new Copier();
+        ReversibleSwapList<Integer> list = new ReversibleSwapList<>(copier);
+        list.add(1);
+        list.add(2);
+        list.add(3);
+
+        copier.push();
+        list.remove(0);
+        Copier.Snapshot snapshot = copier.saveState();
+        copier.pop();
+
+        copier.push();
+        list.remove(2);
+        list.add(4);
+        list.add(5);
+        assertEquals(new HashSet<>(Arrays.asList(1,2,4,5)),content(list));
+
+        copier.restoreState(snapshot);
+        assertEquals(new HashSet<>(Arrays.asList(2,3)),content(list));
+        list.add(6);
+        assertEquals(new HashSet<>(Arrays.asList(2,3,6)),content(list));
+
+        copier.pop();
+        assertEquals(3,list.size());
+        assertEquals(1,(int) list.get(0));
+        assertEquals(2,(int) list.get(1));
+        assertEquals(3,(int) list.get(2));
+    }
+
+    @Test
+    public void testRandom() {
+        Random rand = new Random(0);
+        for (Trail trail : new Trail[]{new Trail(), new Copier()}) {
+            ReversibleSwapList<Integer> list = new ReversibleSwapList<>(trail);
+            List<Set<Integer>> saved = new ArrayList<>();
+            Set<Integer> expected = new HashSet<>();
+            int next = 0;
+            for (int k = 0; k < 5000; k++) {
+                int op = rand.nextInt(10);
+                if (op < 4) {
+                    list.add(next);
+                    expected.add(next++);
+                } else if (op < 7 && list.size() > 0) {
+                    int i = rand.nextInt(list.size());
+                    expected.remove(list.get(i));
+                    list.remove(i);
+                } else if (op < 9 || saved.isEmpty()) {
+                    trail.push();
+                    saved.add(new HashSet<>(expected));
+                } else {
+                    trail.pop();
+                    expected = saved.remove(saved.size() - 1);
+                }
+                assertEquals(expected,content(list));
+            }
+        }
+    }
+}
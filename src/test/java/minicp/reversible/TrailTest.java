@@ -0,0 +1,164 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2017. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.reversible;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+
+public class TrailTest {
+
+    @Test
+    public void testStatistics() {
+        Trail trail = new Trail();
+        ReversibleInt a = new ReversibleInt(trail,0);
+        ReversibleInt b = new ReversibleInt(trail,0);
+
+        trail.push();
+        a.setValue(1);
+        b.setValue(1);
+        trail.push();
+        a.setValue(2);
+
+        assertEquals(3,trail.getSize());
+        assertEquals(2,trail.getLevelSize(0));
+        assertEquals(1,trail.getLevelSize(1));
+
+        trail.pop();
+        trail.pop();
+
+        assertEquals(0,trail.getSize());
+        assertEquals(3,trail.getPeakSize());
+        assertEquals(2,trail.getNumberOfPops());
+        assertEquals(3,trail.getNumberOfRestoredEntries());
+    }
+
+    @Test
+    public void testMaxSize() {
+        Trail trail = new Trail();
+        trail.setMaxSize(5);
+        ReversibleInt [] a = new ReversibleInt[10];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = new ReversibleInt(trail,0);
+        }
+
+        trail.push();
+        try {
+            for (int i = 0; i < a.length; i++) {
+                a[i].setValue(1);
+            }
+            fail("should reach the limit");
+        } catch (TrailLimitException e) {
+            assertEquals(5,trail.getSize());
+        }
+
+        trail.pop();
+
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(0,a[i].getValue());
+        }
+    }
+
+    @Test
+    public void testMaxSizeRecovery() {
+        // the objects that could not be trailed are trailed by their next modification
+        Trail trail = new Trail();
+        ReversibleInt a = new ReversibleInt(trail,0);
+        ReversibleLong b = new ReversibleLong(trail,0);
+        ReversibleBool c = new ReversibleBool(trail,false);
+        ReversibleIntTuple d = new ReversibleIntTuple(trail,0,0);
+        ReversibleIntStore e = new ReversibleIntStore(trail);
+        int h = e.makeInt(0);
+        ReversibleIntList f = new ReversibleIntList(trail);
+        f.add(0);
+        ReversibleSwapList<Integer> g = new ReversibleSwapList<>(trail);
+        g.add(0);
+        g.add(1);
+
+        trail.push();
+        trail.setMaxSize(trail.getSize());
+        Runnable [] modifications = new Runnable[] {
+                () -> a.setValue(1),
+                () -> b.setValue(1),
+                () -> c.setValue(true),
+                () -> d.set(0,1),
+                () -> e.setValue(h,1),
+                () -> f.set(0,1),
+                () -> g.remove(0)
+        };
+        for (Runnable m : modifications) {
+            try {
+                m.run();
+                fail("should reach the limit");
+            } catch (TrailLimitException ex) {
+            }
+        }
+        trail.setMaxSize(Integer.MAX_VALUE);
+        a.setValue(2);
+        b.setValue(2);
+        c.setValue(true);
+        d.set(0,2);
+        e.setValue(h,2);
+        f.set(0,2);
+        g.remove(0);
+        trail.pop();
+
+        assertEquals(0,a.getValue());
+        assertEquals(0,b.getValue());
+        assertFalse(c.getValue());
+        assertEquals(0,d.get(0));
+        assertEquals(0,e.getValue(h));
+        assertEquals(0,f.get(0));
+        assertEquals(2,g.size());
+        assertEquals(0,(int) g.get(0));
+        assertEquals(1,(int) g.get(1));
+    }
+
+    @Test
+    public void testOffHeapTrail() {
+        // small segments such that the trail spans several of them
+        OffHeapTrail trail = new OffHeapTrail(64);
+        ReversibleInt [] a = new ReversibleInt[500];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = new ReversibleInt(trail,i);
+        }
+        ReversibleBool b = new ReversibleBool(trail,false);
+        ReversibleSparseSet set = new ReversibleSparseSet(trail,100);
+
+        trail.push();
+        for (int level = 0; level < 10; level++) {
+            for (int i = 0; i < a.length; i++) {
+                a[i].setValue(-i - level - 1);
+            }
+            b.setValue(level % 2 == 0);
+            set.remove(level);
+            trail.push();
+        }
+        assertEquals(10 * (500 + 1 + 1),trail.getSize());
+
+        trail.popAll();
+
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(i,a[i].getValue());
+        }
+        assertFalse(b.getValue());
+        assertEquals(100,set.getSize());
+    }
+
+}
@@ -29,6 +29,8 @@ import minicp.util.InconsistencyException;
 import org.junit.Test;
 import static minicp.search.Selector.*;
 import static minicp.cp.Factory.*;
+import static minicp.cp.Heuristics.firstFail;
+import static org.junit.Assert.*;
 
 
 public class DFSearchTest {
@@ -177,6 +179,51 @@ public class DFSearchTest {
 
     }
 
+    @Test
+    public void testTrailLimit() {
+        Solver cp = makeSolver();
+        IntVar[] values = makeIntVarArray(cp,10,2);
+        cp.getTrail().setMaxSize(5);
+
+        DFSearch dfs = makeDfs(cp,firstFail(values));
+
+        SearchStatistics stats = dfs.start();
+
+        assertTrue(stats.trailLimitReached);
+        assertFalse(stats.completed);
+        assertEquals(-1,cp.getTrail().getLevel());
+        for (IntVar x: values) {
+            assertEquals(2,x.getSize());
+        }
+
+        cp.getTrail().setMaxSize(Integer.MAX_VALUE);
+        stats = dfs.start();
 
+        assertTrue(stats.completed);
+        assertEquals(1024,stats.nSolutions);
+    }
+
+    @Test
+    public void testTrailPeakSize() {
+        Solver cp = makeSolver();
+        IntVar[] values = makeIntVarArray(cp,3,2);
+        ReversibleInt [] a = new ReversibleInt[100];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = new ReversibleInt(cp.getTrail(),0);
+        }
+        cp.getTrail().push();
+        for (int i = 0; i < a.length; i++) {
+            a[i].setValue(1);
+        }
+        cp.getTrail().pop();
+        int peak = cp.getTrail().getPeakSize();
+        assertTrue(peak >= 100);
+
+        // the peak of the search, not of the trail since its creation
+        SearchStatistics stats = makeDfs(cp,firstFail(values)).start();
+        assertTrue(stats.trailPeakSize > 0);
+        assertTrue(stats.trailPeakSize < peak);
+        assertEquals(peak,cp.getTrail().getPeakSize());
+    }
 
 }